@@ -3,6 +3,8 @@ plugins {
 	jacoco
 	id("org.springframework.boot") version "3.4.2"
 	id("io.spring.dependency-management") version "1.1.7"
+	id("me.champeau.jmh") version "0.7.2"
+	id("org.graalvm.buildtools.native") version "0.10.4" apply false
 }
 
 group = "id.ac.ui.cs.advprog"
@@ -11,6 +13,7 @@ val seleniumJavaVersion = "4.14.1"
 val seleniumJupiterVersion = "5.0.1"
 val webdrivermanagerVersion = "5.6.3"
 val junitJupiterVersion = "5.9.1"
+val jmhCoreVersion = "1.37"
 
 
 java {
@@ -32,11 +35,16 @@ repositories {
 dependencies {
 	implementation("org.springframework.boot:spring-boot-starter-thymeleaf")
 	implementation("org.springframework.boot:spring-boot-starter-web")
+	implementation("com.github.ben-manes.caffeine:caffeine")
+	implementation("io.projectreactor:reactor-core")
+	implementation("org.springframework.boot:spring-boot-starter-actuator")
+	runtimeOnly("io.micrometer:micrometer-registry-prometheus")
 	compileOnly("org.projectlombok:lombok")
 	developmentOnly("org.springframework.boot:spring-boot-devtools")
 	annotationProcessor("org.springframework.boot:spring-boot-configuration-processor")
 	annotationProcessor("org.projectlombok:lombok")
 	testImplementation("org.springframework.boot:spring-boot-starter-test")
+	testImplementation("io.projectreactor:reactor-test")
 	testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 	testImplementation("org.seleniumhq.selenium:selenium-java:$seleniumJavaVersion")
 	testImplementation("io.github.bonigarcia:selenium-jupiter:$seleniumJupiterVersion")
@@ -76,3 +84,112 @@ tasks.jacocoTestReport {
 tasks.withType<Test>().configureEach {
 	useJUnitPlatform()
 }
+
+jmh {
+	jmhVersion = jmhCoreVersion
+	threads = (findProperty("jmhThreads") as String?)?.toInt() ?: 1
+	(findProperty("jmhIncludes") as String?)?.let { includes.add(it) }
+	resultFormat = "JSON"
+	resultsFile = layout.buildDirectory.file("reports/jmh/results.json")
+}
+
+// Runs every benchmark once per thread count; each run writes its own JSON file so
+// results can be compared between versions with any JMH result visualizer.
+val jmhThreadCounts = listOf(1, 2, 4, 8, 16, 32)
+val jmhScaling = tasks.register("jmhScaling") {
+	description = "Runs the JMH benchmarks with 1 to 32 threads"
+	group = "benchmark"
+}
+jmhThreadCounts.forEach { threadCount ->
+	val run = tasks.register<JavaExec>("jmhThreads$threadCount") {
+		description = "Runs the JMH benchmarks with $threadCount threads"
+		group = "benchmark"
+		val jmhJar = tasks.named<Jar>("jmhJar")
+		classpath(jmhJar.flatMap { it.archiveFile })
+		mainClass = "org.openjdk.jmh.Main"
+		args(
+			"-t", threadCount,
+			"-rf", "json",
+			"-rff", layout.buildDirectory.file("reports/jmh/results-threads-$threadCount.json").get().asFile.path
+		)
+	}
+	jmhScaling.configure { dependsOn(run) }
+}
+
+tasks.register<JavaExec>("storageFootprint") {
+	description = "Measures the memory each storage engine takes to hold the catalog"
+	group = "benchmark"
+	classpath = sourceSets["jmh"].runtimeClasspath
+	mainClass = "id.ac.ui.cs.advprog.eshop.benchmark.StorageFootprint"
+	maxHeapSize = "8g"
+	jvmArgs("-XX:MaxDirectMemorySize=4g")
+	(findProperty("footprintSizes") as String?)?.let { args(it) }
+}
+
+// Startup profile, selected with -Pstartup. Applying the GraalVM plugin makes the Spring Boot
+// plugin run AOT processing into the boot jar (used when spring.aot.enabled=true) and adds the
+// optional nativeCompile task. AOT evaluates bean conditions and profiles at build time, here
+// under the prod profile, so the eshop.*.enabled switches keep the values they had then.
+val startupProfile = findProperty("startup") != null
+if (startupProfile) {
+	apply(plugin = "org.graalvm.buildtools.native")
+	tasks.withType<org.springframework.boot.gradle.tasks.aot.ProcessAot>().configureEach {
+		args("--spring.profiles.active=prod")
+	}
+}
+
+val startupJava = javaToolchains.launcherFor { languageVersion = JavaLanguageVersion.of(21) }
+val startupApp = layout.buildDirectory.dir("startup/app")
+val cdsFile = layout.buildDirectory.file("startup/eshop.jsa")
+val bootJarFile = tasks.named<org.springframework.boot.gradle.tasks.bundling.BootJar>("bootJar").flatMap { it.archiveFile }
+
+val extractBootJar = tasks.register<Exec>("extractBootJar") {
+	description = "Extracts the boot jar into the layout an AppCDS archive needs"
+	group = "startup"
+	inputs.file(bootJarFile)
+	outputs.dir(startupApp)
+	executable(startupJava.get().executablePath.asFile)
+	argumentProviders.add(CommandLineArgumentProvider {
+		listOf("-Djarmode=tools", "-jar", bootJarFile.get().asFile.path, "extract",
+			"--destination", startupApp.get().asFile.path, "--application-filename", "eshop.jar", "--force")
+	})
+}
+
+// The training run starts the application context and exits as soon as it is refreshed
+val cdsArchive = tasks.register<Exec>("cdsArchive") {
+	description = "Trains an AppCDS archive for the extracted jar"
+	group = "startup"
+	dependsOn(extractBootJar)
+	inputs.dir(startupApp)
+	outputs.file(cdsFile)
+	workingDir(startupApp)
+	executable(startupJava.get().executablePath.asFile)
+	argumentProviders.add(CommandLineArgumentProvider {
+		listOf("-XX:ArchiveClassesAtExit=" + cdsFile.get().asFile.path, "-Dspring.context.exit=onRefresh",
+			"-Dspring.aot.enabled=$startupProfile", "-jar", "eshop.jar")
+	})
+}
+
+// Starts every variant -PstartupRuns times (5 by default) and prints the median time until
+// /actuator/health answers and the resident set size at that point. The native variant is
+// measured if nativeCompile has been run.
+tasks.register<JavaExec>("startupFootprint") {
+	description = "Compares startup time and memory of the jar, AppCDS, AOT and native variants"
+	group = "benchmark"
+	dependsOn(cdsArchive)
+	classpath = sourceSets["jmh"].runtimeClasspath
+	mainClass = "id.ac.ui.cs.advprog.eshop.benchmark.StartupFootprint"
+	argumentProviders.add(CommandLineArgumentProvider {
+		val java = startupJava.get().executablePath.asFile.path
+		val app = startupApp.get().file("eshop.jar").asFile.path
+		val cds = "-XX:SharedArchiveFile=" + cdsFile.get().asFile.path
+		val variants = mutableListOf((findProperty("startupRuns") as String?) ?: "5",
+			"jar", java, "-jar", bootJarFile.get().asFile.path, "--",
+			"cds", java, cds, "-jar", app)
+		if (startupProfile) {
+			variants += listOf("--", "cds+aot", java, cds, "-Dspring.aot.enabled=true", "-jar", app,
+				"--", "native", layout.buildDirectory.file("native/nativeCompile/eshop").get().asFile.path)
+		}
+		variants
+	})
+}
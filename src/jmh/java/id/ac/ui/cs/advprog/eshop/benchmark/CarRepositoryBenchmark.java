@@ -0,0 +1,72 @@
+package id.ac.ui.cs.advprog.eshop.benchmark;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.repository.CarRepository;
+import id.ac.ui.cs.advprog.eshop.repository.StorageEngine;
+import id.ac.ui.cs.advprog.eshop.repository.offheap.RowLayout;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CarRepositoryBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    int catalogSize;
+
+    @Param({"heap", "sorted", "off-heap"})
+    String engine;
+
+    CarRepository carRepository;
+    String[] carIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        carRepository = new CarRepository(StorageEngine.of(engine).create(RowLayout.car()));
+        carIds = new String[catalogSize];
+        for (int i = 0; i < catalogSize; i++) {
+            carIds[i] = carRepository.createCar(Catalog.car(i)).getCarId();
+        }
+    }
+
+    /**
+     * Threads update random cars, so with more than one thread this mostly measures
+     * updates of independent keys.
+     */
+    @Benchmark
+    public Car update() {
+        int i = ThreadLocalRandom.current().nextInt(catalogSize);
+        return carRepository.update(carIds[i], Catalog.car(i));
+    }
+
+    /**
+     * Every thread updates the same car: the fully contended case.
+     */
+    @Benchmark
+    public Car updateHotCar() {
+        return carRepository.update(carIds[0], Catalog.car(0));
+    }
+
+    @Benchmark
+    public Optional<Car> findById() {
+        return carRepository.findById(carIds[ThreadLocalRandom.current().nextInt(catalogSize)]);
+    }
+}
@@ -0,0 +1,30 @@
+package id.ac.ui.cs.advprog.eshop.benchmark;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+
+/**
+ * Builds the entities the benchmarks fill their repositories with.
+ */
+final class Catalog {
+
+    private static final String[] COLORS = {"Red", "Blue", "Black", "White", "Silver"};
+
+    private Catalog() {
+    }
+
+    static Product product(int i) {
+        Product product = new Product();
+        product.setProductName("Product " + i);
+        product.setProductQuantity(i % 1000);
+        return product;
+    }
+
+    static Car car(int i) {
+        Car car = new Car();
+        car.setCarName("Car " + i);
+        car.setCarColor(COLORS[i % COLORS.length]);
+        car.setCarQuantity(i % 100);
+        return car;
+    }
+}
@@ -0,0 +1,77 @@
+package id.ac.ui.cs.advprog.eshop.benchmark;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import id.ac.ui.cs.advprog.eshop.repository.VersionConflictException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many checkouts racing for one hot SKU. Runs with 64 threads unless {@code -t} overrides it.
+ * {@link #optimisticUpdate} is the read-modify-write a caller would need without the
+ * reservation API, for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class FlashSaleBenchmark {
+
+    ProductRepository productRepository;
+    String hotProductId;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        productRepository = new ProductRepository();
+        Product product = Catalog.product(0);
+        // Enough stock that the sale never sells out within an iteration
+        product.setProductQuantity(Integer.MAX_VALUE);
+        hotProductId = productRepository.create(product).getProductId();
+    }
+
+    @Benchmark
+    public boolean reserveAndRelease() {
+        boolean reserved = productRepository.reserve(hotProductId, 1);
+        if (reserved) {
+            productRepository.release(hotProductId, 1);
+        }
+        return reserved;
+    }
+
+    @Benchmark
+    public Product reserveAndCommit() {
+        return productRepository.reserve(hotProductId, 1) ? productRepository.commit(hotProductId, 1) : null;
+    }
+
+    @Benchmark
+    public Product optimisticUpdate() {
+        while (true) {
+            Product current = productRepository.findById(hotProductId).orElseThrow();
+            Product decremented = new Product();
+            decremented.setProductId(hotProductId);
+            decremented.setProductName(current.getProductName());
+            decremented.setProductQuantity(current.getProductQuantity() - 1);
+            decremented.setVersion(current.getVersion());
+            try {
+                return productRepository.update(decremented);
+            } catch (VersionConflictException e) {
+                // Lost the race to another checkout; read again
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package id.ac.ui.cs.advprog.eshop.benchmark;
+
+import id.ac.ui.cs.advprog.eshop.repository.EntityId;
+import id.ac.ui.cs.advprog.eshop.repository.IdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Id generation and parsing, against the {@link UUID} calls they replace. Generation is where
+ * threads differ: run with {@code -PjmhThreads=16} to see {@code randomUuid} contend on its
+ * shared {@link java.security.SecureRandom}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdBenchmark {
+
+    String id = IdGenerator.next();
+
+    @Benchmark
+    public String randomUuid() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public String generate() {
+        return IdGenerator.next();
+    }
+
+    @Benchmark
+    public long parseUuid() {
+        UUID uuid = UUID.fromString(id);
+        return uuid.getMostSignificantBits() ^ uuid.getLeastSignificantBits();
+    }
+
+    @Benchmark
+    public long parse() {
+        return EntityId.isCanonical(id) ? EntityId.highBits(id) ^ EntityId.lowBits(id) : 0;
+    }
+}
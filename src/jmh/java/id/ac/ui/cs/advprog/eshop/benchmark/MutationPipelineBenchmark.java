@@ -0,0 +1,102 @@
+package id.ac.ui.cs.advprog.eshop.benchmark;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.IndexedStore;
+import id.ac.ui.cs.advprog.eshop.repository.MutationPipeline;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import id.ac.ui.cs.advprog.eshop.repository.persistence.DurableStore;
+import id.ac.ui.cs.advprog.eshop.repository.persistence.ProductCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Durable product updates from many threads, written straight to the repository or through
+ * a {@link MutationPipeline} that applies them in batches under one log commit. Updates
+ * carry no version, so every one is applied; the hot ids make coalescing likely.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class MutationPipelineBenchmark {
+
+    private static final int HOT_PRODUCTS = 64;
+
+    @Param({"direct", "pipelined"})
+    String mode;
+
+    @Param({"true", "false"})
+    boolean fsync;
+
+    ProductRepository productRepository;
+    DurableStore<Product> durableStore;
+    MutationPipeline<Product> pipeline;
+    Path dataDirectory;
+    List<String> productIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataDirectory = Files.createTempDirectory("eshop-benchmark");
+        IndexedStore<Product> store = new IndexedStore<>();
+        durableStore = new DurableStore<>(dataDirectory, "products", new ProductCodec(), Product::getProductId, fsync);
+        durableStore.recover(store);
+        productRepository = new ProductRepository(store);
+
+        productIds = new ArrayList<>(HOT_PRODUCTS);
+        for (int i = 0; i < HOT_PRODUCTS; i++) {
+            productIds.add(productRepository.create(Catalog.product(i)).getProductId());
+        }
+        if ("pipelined".equals(mode)) {
+            pipeline = new MutationPipeline<>(productRepository, 4096, 256, Thread::new);
+            pipeline.start();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (pipeline != null) {
+            pipeline.close();
+        }
+        durableStore.close();
+        try (Stream<Path> files = Files.walk(dataDirectory)) {
+            for (Path file : files.sorted((a, b) -> b.compareTo(a)).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public Product update() {
+        int i = ThreadLocalRandom.current().nextInt(HOT_PRODUCTS);
+        Product product = Catalog.product(i);
+        product.setProductId(productIds.get(i));
+        if (pipeline == null) {
+            return productRepository.update(product);
+        }
+        return MutationPipeline.await(pipeline.update(product.getProductId(), product));
+    }
+}
@@ -0,0 +1,81 @@
+package id.ac.ui.cs.advprog.eshop.benchmark;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import id.ac.ui.cs.advprog.eshop.repository.StorageEngine;
+import id.ac.ui.cs.advprog.eshop.repository.offheap.RowLayout;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductRepositoryBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    int catalogSize;
+
+    @Param({"heap", "sorted", "off-heap"})
+    String engine;
+
+    ProductRepository productRepository;
+    String[] productIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        productRepository = new ProductRepository(StorageEngine.of(engine).create(RowLayout.product()));
+        productIds = new String[catalogSize];
+        for (int i = 0; i < catalogSize; i++) {
+            productIds[i] = productRepository.create(Catalog.product(i)).getProductId();
+        }
+    }
+
+    @Benchmark
+    public Optional<Product> findById() {
+        return productRepository.findById(productIds[ThreadLocalRandom.current().nextInt(catalogSize)]);
+    }
+
+    @Benchmark
+    public Optional<Product> findByIdMissing() {
+        return productRepository.findById("non-existent-id");
+    }
+
+    /**
+     * Typeahead query: a common word plus the prefix of a rarer one.
+     */
+    @Benchmark
+    public List<Product> search() {
+        return productRepository.search("product " + ThreadLocalRandom.current().nextInt(100), 10);
+    }
+
+    /**
+     * Deletes a product and puts it back, so the catalog size stays at {@code catalogSize}
+     * for the whole run.
+     */
+    @Benchmark
+    public Product deleteByIdAndRecreate() {
+        int i = ThreadLocalRandom.current().nextInt(catalogSize);
+        productRepository.deleteById(productIds[i]);
+        Product product = Catalog.product(i);
+        product.setProductId(productIds[i]);
+        return productRepository.create(product);
+    }
+}
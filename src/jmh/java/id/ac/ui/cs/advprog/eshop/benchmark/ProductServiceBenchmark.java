@@ -0,0 +1,62 @@
+package id.ac.ui.cs.advprog.eshop.benchmark;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import id.ac.ui.cs.advprog.eshop.service.ProductService;
+import id.ac.ui.cs.advprog.eshop.service.ProductServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    int catalogSize;
+
+    ProductService productService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ProductRepository productRepository = new ProductRepository();
+        for (int i = 0; i < catalogSize; i++) {
+            productRepository.create(Catalog.product(i));
+        }
+        productService = new ProductServiceImpl(productRepository);
+    }
+
+    @Benchmark
+    public List<Product> findAll() {
+        return productService.findAll();
+    }
+
+    @Benchmark
+    public void streamAll(Blackhole blackhole) {
+        for (Product product : productService.streamAll()) {
+            blackhole.consume(product);
+        }
+    }
+
+    @Benchmark
+    public List<Product> findFirstPage() {
+        return productService.findPage(0, 20).getContent();
+    }
+}
@@ -0,0 +1,120 @@
+package id.ac.ui.cs.advprog.eshop.benchmark;
+
+import id.ac.ui.cs.advprog.eshop.EshopApplication;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import id.ac.ui.cs.advprog.eshop.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to render the streamed product list with 10k rows, the score being milliseconds per
+ * listing. {@code baseline} renders the list as it was before the row fragment, evaluating
+ * SpEL, escaping and building links per cell; {@code fragment} is the current
+ * {@code ProductList.html} with pre-escaped rows. The {@code prod} profile adds the SpEL
+ * compiler to both.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RenderBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    @Param({"baseline", "fragment"})
+    String template;
+
+    @Param({"default", "prod"})
+    String profile;
+
+    ConfigurableApplicationContext context;
+    HttpClient client;
+    URI listUri;
+
+    /**
+     * Serves {@code src/jmh/resources/templates/benchmark/ProductListBaseline.html}.
+     */
+    @Controller
+    public static class BaselineController {
+
+        @Autowired
+        private ProductService service;
+
+        @GetMapping("/benchmark/product/list")
+        public String productListPage(Model model) {
+            model.addAttribute("products", service.streamAll());
+            return "benchmark/ProductListBaseline";
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(EshopApplication.class, BaselineController.class)
+                .profiles(profile)
+                .properties(
+                        "server.port=0",
+                        "server.compression.enabled=false",
+                        "spring.thymeleaf.cache=true",
+                        "logging.level.root=warn")
+                .run();
+        String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+        listUri = URI.create(baseUrl + ("baseline".equals(template) ? "/benchmark/product/list" : "/product/list?stream=true"));
+
+        List<Product> products = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Product product = Catalog.product(i);
+            // Something for the escaper to do
+            product.setProductName("Product " + i + " <Sampo & Sabun>");
+            products.add(product);
+        }
+        context.getBean(ProductRepository.class).createAll(products);
+
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        context.close();
+    }
+
+    @Benchmark
+    public long renderList() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(listUri).GET().build();
+        try (InputStream body = client.send(request, HttpResponse.BodyHandlers.ofInputStream()).body()) {
+            return body.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package id.ac.ui.cs.advprog.eshop.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Time until the application is ready, and its resident set size once it is, for each way
+ * of starting it: the plain jar, the extracted jar with an AppCDS archive, the same with
+ * Spring AOT, and a native image. Ready means {@code /actuator/health} answers 200. Each
+ * variant is started several times and the medians are reported.
+ *
+ * <p>Not a JMH benchmark: every sample is a fresh process. Linux only, since the resident
+ * set size is read from {@code /proc}. Run it with {@code ./gradlew -Pstartup startupFootprint},
+ * which builds the variants first; {@code -PstartupRuns=10} takes more samples.
+ *
+ * <p>Arguments: the number of runs, then the variants separated by {@code --}, each a name
+ * followed by the command that starts it.
+ */
+public final class StartupFootprint {
+
+    private static final HttpClient CLIENT = HttpClient.newHttpClient();
+
+    private StartupFootprint() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = Integer.parseInt(args[0]);
+        System.out.printf("%-10s %12s %10s%n", "variant", "ready ms", "RSS MiB");
+        int from = 1;
+        while (from < args.length) {
+            int to = from;
+            while (to < args.length && !"--".equals(args[to])) {
+                to++;
+            }
+            String name = args[from];
+            List<String> command = Arrays.asList(args).subList(from + 1, to);
+            if (Files.isExecutable(Path.of(command.get(0))) || !command.get(0).contains("/")) {
+                measure(name, command, runs);
+            } else {
+                System.out.printf("%-10s %12s %10s%n", name, "not built", "");
+            }
+            from = to + 1;
+        }
+    }
+
+    private static void measure(String name, List<String> command, int runs) throws Exception {
+        long[] readyMillis = new long[runs];
+        long[] rssKilobytes = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long[] sample = start(command);
+            readyMillis[i] = sample[0];
+            rssKilobytes[i] = sample[1];
+        }
+        System.out.printf("%-10s %,12d %,10.1f%n", name, median(readyMillis), median(rssKilobytes) / 1024.0);
+    }
+
+    private static long[] start(List<String> command) throws Exception {
+        int port = freePort();
+        List<String> withPort = new ArrayList<>(command);
+        withPort.add("--server.port=" + port);
+        HttpRequest health = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health")).build();
+
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(withPort)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            while (true) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(String.join(" ", command) + " exited with " + process.exitValue());
+                }
+                try {
+                    if (CLIENT.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        break;
+                    }
+                } catch (IOException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(5);
+            }
+            long readyMillis = (System.nanoTime() - started) / 1_000_000;
+            return new long[] {readyMillis, rssKilobytes(process.pid())};
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static long rssKilobytes(long pid) throws IOException {
+        for (String line : Files.readAllLines(Path.of("/proc", Long.toString(pid), "status"))) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.substring("VmRSS:".length()).replace("kB", "").trim());
+            }
+        }
+        throw new IllegalStateException("No VmRSS for process " + pid);
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long median(long[] samples) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
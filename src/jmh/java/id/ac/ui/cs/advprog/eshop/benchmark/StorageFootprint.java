@@ -0,0 +1,79 @@
+package id.ac.ui.cs.advprog.eshop.benchmark;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.repository.EntityStore;
+import id.ac.ui.cs.advprog.eshop.repository.IdGenerator;
+import id.ac.ui.cs.advprog.eshop.repository.IndexedStore;
+import id.ac.ui.cs.advprog.eshop.repository.offheap.OffHeapStore;
+import id.ac.ui.cs.advprog.eshop.repository.offheap.RowLayout;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Memory taken by each storage engine to hold the same cars, measured as the growth of the
+ * live heap after a full GC plus the growth of direct buffer memory. Only the store itself
+ * is measured; the repositories' secondary indexes are the same for both engines.
+ *
+ * <p>Not a JMH benchmark: footprint is a size, not a rate. Run it with
+ * {@code ./gradlew storageFootprint}, or {@code -PfootprintSizes=100000,1000000} for other
+ * catalog sizes.
+ */
+public final class StorageFootprint {
+
+    private static final int BATCH_SIZE = 10_000;
+
+    private StorageFootprint() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        String sizes = args.length > 0 ? args[0] : "100000,1000000,10000000";
+        System.out.printf("%-9s %12s %12s %12s %10s%n", "engine", "cars", "heap MiB", "direct MiB", "bytes/car");
+        for (String size : sizes.split(",")) {
+            int cars = Integer.parseInt(size.trim());
+            measure("heap", new IndexedStore<>(), cars);
+            measure("off-heap", new OffHeapStore<>(RowLayout.car()), cars);
+        }
+    }
+
+    private static void measure(String engine, EntityStore<Car> store, int cars) throws InterruptedException {
+        long heapBefore = usedHeap();
+        long directBefore = usedDirect();
+        List<Car> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < cars; i++) {
+            Car car = Catalog.car(i);
+            car.setCarId(IdGenerator.next());
+            batch.add(car);
+            if (batch.size() == BATCH_SIZE || i == cars - 1) {
+                store.putAll(batch, Car::getCarId);
+                batch.clear();
+            }
+        }
+        long heap = usedHeap() - heapBefore;
+        long direct = usedDirect() - directBefore;
+        System.out.printf("%-9s %,12d %,12.1f %,12.1f %,10.1f%n", engine, cars,
+                heap / 1048576.0, direct / 1048576.0, (double) (heap + direct) / cars);
+        Reference.reachabilityFence(store);
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long usedDirect() {
+        long used = 0;
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if ("direct".equals(pool.getName())) {
+                used += pool.getMemoryUsed();
+            }
+        }
+        return used;
+    }
+}
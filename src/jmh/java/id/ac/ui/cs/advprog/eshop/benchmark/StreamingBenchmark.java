@@ -0,0 +1,122 @@
+package id.ac.ui.cs.advprog.eshop.benchmark;
+
+import id.ac.ui.cs.advprog.eshop.EshopApplication;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams the whole product catalog over HTTP: the servlet export and JSON API pages
+ * against the reactive NDJSON and server-sent event endpoints. Each operation reads one
+ * full listing, so throughput is listings per second.
+ *
+ * <p>Run under load with {@code ./gradlew jmh -PjmhThreads=256 -PjmhIncludes=StreamingBenchmark};
+ * compression is off so the numbers measure serialisation and flow control, not gzip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class StreamingBenchmark {
+
+    @Param({"1000", "10000"})
+    int catalogSize;
+
+    @Param({"platform", "virtual"})
+    String threads;
+
+    ConfigurableApplicationContext context;
+    HttpClient client;
+    String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(EshopApplication.class)
+                .properties(
+                        "server.port=0",
+                        "server.compression.enabled=false",
+                        "spring.threads.virtual.enabled=" + "virtual".equals(threads),
+                        "logging.level.root=warn")
+                .run();
+        baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+
+        List<Product> products = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            products.add(Catalog.product(i));
+        }
+        context.getBean(ProductRepository.class).createAll(products);
+
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        context.close();
+    }
+
+    private long read(String path, String accept) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Accept", accept)
+                .GET()
+                .build();
+        try (InputStream body = client.send(request, HttpResponse.BodyHandlers.ofInputStream()).body()) {
+            return body.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    @Benchmark
+    public long servletExport() throws IOException, InterruptedException {
+        return read("/product/export?format=jsonl", "application/x-ndjson");
+    }
+
+    /**
+     * The JSON API's pages of 1000, fetched one after the other.
+     */
+    @Benchmark
+    public long servletPages() throws IOException, InterruptedException {
+        long bytes = 0;
+        for (int offset = 0; offset < catalogSize; offset += 1000) {
+            bytes += read("/api/products?size=1000&page=" + offset / 1000, "application/json");
+        }
+        return bytes;
+    }
+
+    @Benchmark
+    public long reactiveNdjson() throws IOException, InterruptedException {
+        return read("/api/reactive/products", "application/x-ndjson");
+    }
+
+    @Benchmark
+    public long reactiveEventStream() throws IOException, InterruptedException {
+        return read("/api/reactive/products", "text/event-stream");
+    }
+}
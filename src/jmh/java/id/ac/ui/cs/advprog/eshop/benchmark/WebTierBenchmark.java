@@ -0,0 +1,133 @@
+package id.ac.ui.cs.advprog.eshop.benchmark;
+
+import id.ac.ui.cs.advprog.eshop.EshopApplication;
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.CarRepository;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Boots the application and drives the product and car endpoints over HTTP, once with
+ * Tomcat's platform thread pool and once with virtual threads. Durable mode with fsync is
+ * on, so every write blocks its request thread on disk I/O the way a database call would.
+ *
+ * <p>The difference shows once there are more concurrent clients than Tomcat's 200 worker
+ * threads, for example {@code ./gradlew jmh -PjmhThreads=512 -PjmhIncludes=WebTierBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class WebTierBenchmark {
+
+    private static final int CATALOG_SIZE = 10_000;
+
+    @Param({"platform", "virtual"})
+    String threads;
+
+    ConfigurableApplicationContext context;
+    HttpClient client;
+    String baseUrl;
+    Path dataDirectory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataDirectory = Files.createTempDirectory("eshop-benchmark");
+        context = new SpringApplicationBuilder(EshopApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + "virtual".equals(threads),
+                        "eshop.persistence.enabled=true",
+                        "eshop.persistence.fsync=true",
+                        "eshop.persistence.directory=" + dataDirectory,
+                        "logging.level.root=warn")
+                .run();
+        baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+
+        List<Product> products = new ArrayList<>(CATALOG_SIZE);
+        List<Car> cars = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            products.add(Catalog.product(i));
+            cars.add(Catalog.car(i));
+        }
+        context.getBean(ProductRepository.class).createAll(products);
+        context.getBean(CarRepository.class).createAll(cars);
+
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        client.close();
+        context.close();
+        try (Stream<Path> files = Files.walk(dataDirectory)) {
+            for (Path file : files.sorted((a, b) -> b.compareTo(a)).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private int get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private int postForm(String path, String form) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Benchmark
+    public int listProducts() throws IOException, InterruptedException {
+        return get("/product/list?page=" + ThreadLocalRandom.current().nextInt(10));
+    }
+
+    @Benchmark
+    public int listCars() throws IOException, InterruptedException {
+        return get("/car/listCar?page=" + ThreadLocalRandom.current().nextInt(10));
+    }
+
+    @Benchmark
+    public int createProduct() throws IOException, InterruptedException {
+        return postForm("/product/create", "productName=Benchmark&productQuantity=1");
+    }
+
+    @Benchmark
+    public int createCar() throws IOException, InterruptedException {
+        return postForm("/car/createCar", "carName=Benchmark&carColor=Red&carQuantity=1");
+    }
+}
@@ -1,9 +1,12 @@
 package id.ac.ui.cs.advprog.eshop;
 
+import id.ac.ui.cs.advprog.eshop.config.EshopRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(EshopRuntimeHints.class)
 public class EshopApplication {
 
 	public static void main(String[] args) {
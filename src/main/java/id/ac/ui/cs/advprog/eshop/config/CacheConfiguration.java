@@ -0,0 +1,68 @@
+package id.ac.ui.cs.advprog.eshop.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import id.ac.ui.cs.advprog.eshop.service.CachingCarService;
+import id.ac.ui.cs.advprog.eshop.service.CachingProductService;
+import id.ac.ui.cs.advprog.eshop.service.CarServiceImpl;
+import id.ac.ui.cs.advprog.eshop.service.ProductServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * Puts a read-through cache in front of the product and car services, enabled with
+ * {@code eshop.cache.enabled=true}. Caffeine evicts with W-TinyLFU once
+ * {@code eshop.cache.maximum-size} entries are cached, and drops entries
+ * {@code eshop.cache.ttl} after they were loaded.
+ */
+@Configuration
+@ConditionalOnProperty(name = "eshop.cache.enabled", havingValue = "true")
+public class CacheConfiguration {
+
+    @Value("${eshop.cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${eshop.cache.ttl:5m}")
+    private Duration ttl;
+
+    /**
+     * Boot's task executor: virtual threads when {@code spring.threads.virtual.enabled=true},
+     * otherwise a bounded platform thread pool. Caffeine runs its eviction upkeep on it.
+     */
+    @Autowired
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    private Executor taskExecutor;
+
+    private <V> Cache<String, V> newCache(MeterRegistry registry, String name) {
+        Cache<String, V> cache = Caffeine.newBuilder()
+                .executor(taskExecutor)
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(registry, cache, name);
+    }
+
+    @Bean
+    @Primary
+    public CachingProductService cachingProductService(ProductServiceImpl productService, MeterRegistry registry) {
+        return new CachingProductService(productService, newCache(registry, "products"));
+    }
+
+    @Bean
+    @Primary
+    public CachingCarService cachingCarService(CarServiceImpl carService, MeterRegistry registry) {
+        return new CachingCarService(carService, newCache(registry, "cars"));
+    }
+}
@@ -0,0 +1,31 @@
+package id.ac.ui.cs.advprog.eshop.config;
+
+import id.ac.ui.cs.advprog.eshop.controller.CarRow;
+import id.ac.ui.cs.advprog.eshop.controller.ProductRow;
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.InventoryStatistics;
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.ChangeEvent;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.BindingReflectionHintsRegistrar;
+
+/**
+ * What a native image cannot discover by itself. Form binding and Jackson reach the
+ * entities' properties by reflection, and the templates reach the entities and list rows
+ * the same way through SpEL. Thymeleaf loads templates by name at run time, so every
+ * template is kept as a resource.
+ */
+public class EshopRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                Product.class, Car.class, Page.class, InventoryStatistics.class, ChangeEvent.class,
+                ProductRow.class, CarRow.class);
+        hints.resources()
+                .registerPattern("templates/*.html")
+                .registerPattern("templates/fragments/*.html");
+    }
+}
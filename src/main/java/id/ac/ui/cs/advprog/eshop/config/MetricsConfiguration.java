@@ -0,0 +1,24 @@
+package id.ac.ui.cs.advprog.eshop.config;
+
+import id.ac.ui.cs.advprog.eshop.repository.CarRepository;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Latency and size metrics below the web tier. Controllers are timed by Spring Boot's
+ * {@code http.server.requests}; services and repository stores by pre-registered timers
+ * that record without allocating.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public MeterBinder repositoryMetrics(ProductRepository productRepository, CarRepository carRepository) {
+        return registry -> {
+            productRepository.getStore().bindMetrics(registry, "products");
+            carRepository.getStore().bindMetrics(registry, "cars");
+        };
+    }
+}
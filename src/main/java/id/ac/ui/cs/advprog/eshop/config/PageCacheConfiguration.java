@@ -0,0 +1,35 @@
+package id.ac.ui.cs.advprog.eshop.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import id.ac.ui.cs.advprog.eshop.controller.RenderedPageCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.thymeleaf.spring6.view.ThymeleafViewResolver;
+
+/**
+ * Serves unchanged list pages from their rendered HTML, enabled with
+ * {@code eshop.page-cache.enabled=true}. Up to {@code eshop.page-cache.maximum-size} pages
+ * are kept; entries are never stale, since their keys carry the modification count.
+ */
+@Configuration
+@ConditionalOnProperty(name = "eshop.page-cache.enabled", havingValue = "true")
+public class PageCacheConfiguration {
+
+    @Value("${eshop.page-cache.maximum-size:1000}")
+    private long maximumSize;
+
+    @Bean
+    public RenderedPageCache renderedPageCache(ThymeleafViewResolver thymeleafViewResolver, MeterRegistry registry) {
+        Cache<String, RenderedPageCache.Rendered> pages = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, pages, "pages");
+        return new RenderedPageCache(thymeleafViewResolver, thymeleafViewResolver.getOrder() - 1, pages);
+    }
+}
@@ -0,0 +1,45 @@
+package id.ac.ui.cs.advprog.eshop.config;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.CarRepository;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import id.ac.ui.cs.advprog.eshop.repository.persistence.CarCodec;
+import id.ac.ui.cs.advprog.eshop.repository.persistence.DurableStore;
+import id.ac.ui.cs.advprog.eshop.repository.persistence.ProductCodec;
+import id.ac.ui.cs.advprog.eshop.repository.persistence.RepositoryPersistence;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Durable mode for the repositories, enabled with {@code eshop.persistence.enabled=true}.
+ * Checkpoints run on a virtual thread when {@code spring.threads.virtual.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "eshop.persistence.enabled", havingValue = "true")
+public class PersistenceConfiguration {
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public RepositoryPersistence repositoryPersistence(
+            ProductRepository productRepository,
+            CarRepository carRepository,
+            @Value("${eshop.persistence.directory:data}") Path directory,
+            @Value("${eshop.persistence.fsync:true}") boolean fsync,
+            @Value("${eshop.persistence.checkpoint-interval:10m}") Duration checkpointInterval,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        ThreadFactory checkpointThreads = virtualThreads
+                ? Thread.ofVirtual().name("repository-checkpoint").factory()
+                : Thread.ofPlatform().name("repository-checkpoint").daemon().factory();
+        return new RepositoryPersistence(checkpointInterval, checkpointThreads)
+                .register(productRepository.getStore(),
+                        new DurableStore<>(directory, "products", new ProductCodec(), Product::getProductId, fsync))
+                .register(carRepository.getStore(),
+                        new DurableStore<>(directory, "cars", new CarCodec(), Car::getCarId, fsync));
+    }
+}
@@ -0,0 +1,49 @@
+package id.ac.ui.cs.advprog.eshop.config;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.CarRepository;
+import id.ac.ui.cs.advprog.eshop.repository.MutationPipeline;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Pipelined write mode, enabled with {@code eshop.writes.pipeline.enabled=true}: the
+ * services hand creates, updates and deletes to one {@link MutationPipeline} per repository
+ * and wait for its future, instead of writing on the request thread. Up to
+ * {@code eshop.writes.pipeline.capacity} mutations queue before requests block, and the
+ * writer applies up to {@code eshop.writes.pipeline.max-batch} of them per batch.
+ */
+@Configuration
+@ConditionalOnProperty(name = "eshop.writes.pipeline.enabled", havingValue = "true")
+public class PipelineConfiguration {
+
+    @Value("${eshop.writes.pipeline.capacity:4096}")
+    private int capacity;
+
+    @Value("${eshop.writes.pipeline.max-batch:256}")
+    private int maxBatch;
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public MutationPipeline<Product> productPipeline(ProductRepository productRepository) {
+        return new MutationPipeline<>(productRepository, capacity, maxBatch, writerThreads("product-writer"));
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public MutationPipeline<Car> carPipeline(CarRepository carRepository) {
+        return new MutationPipeline<>(carRepository, capacity, maxBatch, writerThreads("car-writer"));
+    }
+
+    /**
+     * A platform thread: the writer runs for the life of the application and spends most of
+     * its time in the store and the log, where a virtual thread would gain nothing.
+     */
+    private static ThreadFactory writerThreads(String name) {
+        return Thread.ofPlatform().name(name).daemon().factory();
+    }
+}
@@ -0,0 +1,23 @@
+package id.ac.ui.cs.advprog.eshop.config;
+
+import org.springframework.boot.autoconfigure.thymeleaf.ThymeleafProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.thymeleaf.spring6.templateresolver.SpringResourceTemplateResolver;
+
+/**
+ * Production rendering profile, {@code prod}. Refuses to start if templates would be parsed
+ * again on every render, which would happen if {@code spring.thymeleaf.cache} were
+ * overridden to {@code false}, for example from the environment.
+ */
+@Configuration
+@Profile("prod")
+public class RenderingConfiguration {
+
+    public RenderingConfiguration(ThymeleafProperties thymeleafProperties,
+                                  SpringResourceTemplateResolver defaultTemplateResolver) {
+        if (!thymeleafProperties.isCache() || !defaultTemplateResolver.isCacheable()) {
+            throw new IllegalStateException("Template caching must stay enabled in the prod profile");
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package id.ac.ui.cs.advprog.eshop.config;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.EntityStore;
+import id.ac.ui.cs.advprog.eshop.repository.StorageEngine;
+import id.ac.ui.cs.advprog.eshop.repository.offheap.RowLayout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Storage engine of each repository, chosen per entity with
+ * {@code eshop.storage.products.engine} and {@code eshop.storage.cars.engine}, which
+ * default to {@code eshop.storage.engine}: {@code heap} for one object per entity in
+ * concurrent maps, {@code sorted} for a single skip list in id order, or {@code off-heap}
+ * for the compact columnar store. Durable mode ({@code eshop.persistence.enabled}) works on
+ * top of any of them.
+ */
+@Configuration
+public class StorageConfiguration {
+
+    @Bean
+    public EntityStore<Product> productStore(
+            @Value("${eshop.storage.products.engine:${eshop.storage.engine:heap}}") String engine) {
+        return StorageEngine.of(engine).create(RowLayout.product());
+    }
+
+    @Bean
+    public EntityStore<Car> carStore(
+            @Value("${eshop.storage.cars.engine:${eshop.storage.engine:heap}}") String engine) {
+        return StorageEngine.of(engine).create(RowLayout.car());
+    }
+}
@@ -0,0 +1,248 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Reads and writes catalog entities as CSV or JSON lines for the bulk import and export
+ * endpoints. Both directions stream: uploads are parsed line by line and handed over in
+ * batches once the whole upload has parsed, and downloads are written row by row straight
+ * from the repository iterator.
+ */
+final class BulkTransfer {
+
+    static final String TEXT_CSV = "text/csv";
+    static final int BATCH_SIZE = 10_000;
+
+    static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    /**
+     * CSV layout of an entity: the header row and how to convert a row from and to fields.
+     */
+    record Columns<T>(Class<T> type, String[] header, Function<String[], T> reader, Function<T, Object[]> writer) {
+    }
+
+    private BulkTransfer() {
+    }
+
+    /**
+     * Parses the upload according to its content type and passes the entities to
+     * {@code sink} in batches of {@link #BATCH_SIZE}. Returns how many were read.
+     *
+     * <p>The upload is spooled to a temporary file and parsed twice: first to check every
+     * line, then to hand the batches over. A bad line anywhere rejects the whole upload
+     * before anything is stored, and memory still holds one batch at a time.
+     */
+    static <T> Map<String, Long> importBody(InputStream body, String contentType, Columns<T> columns,
+                                            Consumer<List<T>> sink) throws IOException {
+        boolean csv = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.valueOf(TEXT_CSV));
+        Path upload = Files.createTempFile("eshop-import-", csv ? ".csv" : ".jsonl");
+        try {
+            Files.copy(body, upload, StandardCopyOption.REPLACE_EXISTING);
+            read(upload, csv, columns, batch -> { });
+            return Map.of("imported", read(upload, csv, columns, sink));
+        } finally {
+            Files.deleteIfExists(upload);
+        }
+    }
+
+    private static <T> long read(Path upload, boolean csv, Columns<T> columns, Consumer<List<T>> sink)
+            throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(Files.newInputStream(upload), StandardCharsets.UTF_8))) {
+            List<T> batch = new ArrayList<>(BATCH_SIZE);
+            long imported = 0;
+            long lineNumber = 0;
+            String line;
+            if (csv) {
+                lineNumber++;
+                line = reader.readLine();
+                if (line == null || !String.join(",", parseCsvLine(line)).equalsIgnoreCase(String.join(",", columns.header()))) {
+                    throw badRequest("expected CSV header " + String.join(",", columns.header()), lineNumber);
+                }
+            }
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                long recordLine = lineNumber;
+                if (csv && togglesQuote(line)) {
+                    // A quoted field spans lines; keep reading until a line closes it. Only
+                    // the new line is scanned, so a long record is not rescanned per line
+                    StringBuilder record = new StringBuilder(line);
+                    String next;
+                    do {
+                        next = reader.readLine();
+                        if (next == null) {
+                            throw badRequest("unterminated quoted field", recordLine);
+                        }
+                        lineNumber++;
+                        record.append('\n').append(next);
+                    } while (!togglesQuote(next));
+                    line = record.toString();
+                }
+                if (line.isBlank()) {
+                    continue;
+                }
+                batch.add(csv ? readCsv(line, columns, recordLine) : readJson(line, columns, recordLine));
+                if (batch.size() == BATCH_SIZE) {
+                    sink.accept(batch);
+                    imported += batch.size();
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if (!batch.isEmpty()) {
+                sink.accept(batch);
+                imported += batch.size();
+            }
+            return imported;
+        }
+    }
+
+    /**
+     * Streams {@code items} as CSV (the default) or, for {@code format=jsonl}, as JSON lines.
+     */
+    static <T> ResponseEntity<StreamingResponseBody> export(Iterable<T> items, String format, Columns<T> columns,
+                                                            String fileName) {
+        boolean jsonLines = "jsonl".equalsIgnoreCase(format) || "ndjson".equalsIgnoreCase(format);
+        StreamingResponseBody body = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            if (!jsonLines) {
+                writeCsvLine(writer, columns.header());
+            }
+            for (T item : items) {
+                if (jsonLines) {
+                    writer.write(MAPPER.writeValueAsString(item));
+                    writer.write('\n');
+                } else {
+                    writeCsvLine(writer, columns.writer().apply(item));
+                }
+            }
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(jsonLines ? MediaType.APPLICATION_NDJSON : MediaType.valueOf(TEXT_CSV))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + fileName + (jsonLines ? ".jsonl" : ".csv") + "\"")
+                .body(body);
+    }
+
+    private static <T> T readCsv(String line, Columns<T> columns, long lineNumber) {
+        String[] fields = parseCsvLine(line);
+        if (fields.length != columns.header().length) {
+            throw badRequest("expected " + columns.header().length + " fields", lineNumber);
+        }
+        try {
+            return columns.reader().apply(fields);
+        } catch (NumberFormatException e) {
+            throw badRequest(e.getMessage(), lineNumber);
+        }
+    }
+
+    private static <T> T readJson(String line, Columns<T> columns, long lineNumber) {
+        try {
+            return MAPPER.readValue(line, columns.type());
+        } catch (JsonProcessingException e) {
+            throw badRequest(e.getOriginalMessage(), lineNumber);
+        }
+    }
+
+    private static ResponseStatusException badRequest(String reason, long lineNumber) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Line " + lineNumber + ": " + reason);
+    }
+
+    /**
+     * Whether {@code line} opens or closes a quoted field that carries on past it. Escaped
+     * quotes come in pairs, so only an odd number of quotes changes the state.
+     */
+    private static boolean togglesQuote(String line) {
+        int quotes = 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') {
+                quotes++;
+            }
+        }
+        return quotes % 2 != 0;
+    }
+
+    /**
+     * Blank CSV fields of optional values, such as the id of a new entity, read as
+     * {@code null}.
+     */
+    static String optional(String field) {
+        return field.isEmpty() ? null : field;
+    }
+
+    /**
+     * Splits one CSV record, honouring double-quoted fields, {@code ""} escapes and line
+     * breaks inside quotes.
+     */
+    static String[] parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    private static void writeCsvLine(Writer writer, Object[] fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String field = fields[i] == null ? "" : fields[i].toString();
+            if (field.indexOf(',') >= 0 || field.indexOf('"') >= 0
+                    || field.indexOf('\n') >= 0 || field.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(field.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(field);
+            }
+        }
+        writer.write('\n');
+    }
+}
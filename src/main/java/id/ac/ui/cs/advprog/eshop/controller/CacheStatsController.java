@@ -0,0 +1,44 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import id.ac.ui.cs.advprog.eshop.service.CachingCarService;
+import id.ac.ui.cs.advprog.eshop.service.CachingProductService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@ConditionalOnProperty(name = "eshop.cache.enabled", havingValue = "true")
+public class CacheStatsController {
+
+    private final CachingProductService productService;
+    private final CachingCarService carService;
+
+    @Autowired
+    public CacheStatsController(CachingProductService productService, CachingCarService carService) {
+        this.productService = productService;
+        this.carService = carService;
+    }
+
+    @GetMapping("/cache/stats")
+    public Map<String, Map<String, Object>> cacheStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        stats.put("products", describe(productService.getCacheStats(), productService.getCacheSize()));
+        stats.put("cars", describe(carService.getCacheStats(), carService.getCacheSize()));
+        return stats;
+    }
+
+    private static Map<String, Object> describe(CacheStats stats, long size) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("size", size);
+        description.put("hits", stats.hitCount());
+        description.put("misses", stats.missCount());
+        description.put("hitRate", stats.hitRate());
+        description.put("evictions", stats.evictionCount());
+        return description;
+    }
+}
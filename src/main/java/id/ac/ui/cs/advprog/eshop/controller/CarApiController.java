@@ -0,0 +1,111 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.model.InventoryStatistics;
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.repository.VersionConflictException;
+import id.ac.ui.cs.advprog.eshop.service.CarService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.net.URI;
+
+/**
+ * JSON API for cars, next to the HTML pages of {@link CarController}.
+ */
+@RestController
+@RequestMapping("/api/cars")
+public class CarApiController {
+
+    @Autowired
+    private CarService service;
+
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> listCars(@RequestParam(defaultValue = "0") int page,
+                                                          @RequestParam(defaultValue = Pagination.DEFAULT_SIZE) int size,
+                                                          @RequestParam(required = false) String after,
+                                                          WebRequest request) {
+        // Read the count before the page, so the page is never older than its tag
+        String etag = JsonApi.listTag(service.modificationCount());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        size = Pagination.apiSize(size);
+        Page<Car> cars = after != null
+                ? service.findPageAfter(after, size)
+                : service.findPage(Pagination.page(page), size);
+        return JsonApi.page(cars, etag);
+    }
+
+    /**
+     * Count, total and range of the quantities and counts per color, kept up to date on
+     * every write instead of summed over the cars per request.
+     */
+    @GetMapping("/statistics")
+    public InventoryStatistics statistics() {
+        return service.statistics();
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Car> getCar(@PathVariable String id, WebRequest request) {
+        Car car = service.findById(id);
+        if (car == null) {
+            throw JsonApi.notFound("car", id);
+        }
+        String etag = JsonApi.tag(car.getVersion());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(car);
+    }
+
+    @PostMapping
+    public ResponseEntity<Car> createCar(@RequestBody Car car) {
+        // Ids are assigned here; a client-chosen id could replace an existing car
+        car.setCarId(null);
+        Car created = service.create(car);
+        return ResponseEntity.created(URI.create("/api/cars/" + created.getCarId()))
+                .eTag(JsonApi.tag(created.getVersion()))
+                .body(created);
+    }
+
+    /**
+     * Replaces the car's name, color and quantity. The update only applies if the car is
+     * still at the version named by {@code If-Match}, or else by the body's {@code version};
+     * with neither the request is refused with 428.
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<Car> updateCar(@PathVariable String id, @RequestBody Car car,
+                                         @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        car.setCarId(id);
+        car.setVersion(JsonApi.expectedVersion(ifMatch, car.getVersion()));
+        try {
+            Car updated = service.update(id, car);
+            if (updated == null) {
+                throw JsonApi.notFound("car", id);
+            }
+            return ResponseEntity.ok().eTag(JsonApi.tag(updated.getVersion())).body(updated);
+        } catch (VersionConflictException e) {
+            throw JsonApi.conflict(ifMatch != null, e);
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteCar(@PathVariable String id) {
+        service.deleteCarById(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,23 +1,50 @@
 package id.ac.ui.cs.advprog.eshop.controller;
 
 import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import id.ac.ui.cs.advprog.eshop.repository.VersionConflictException;
 import id.ac.ui.cs.advprog.eshop.service.CarService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 
 @Controller
 @RequestMapping("/car")
 public class CarController {
 
+    private static final BulkTransfer.Columns<Car> CAR_COLUMNS = new BulkTransfer.Columns<>(
+            Car.class,
+            new String[] {"carId", "carName", "carColor", "carQuantity"},
+            fields -> {
+                Car car = new Car();
+                car.setCarId(BulkTransfer.optional(fields[0]));
+                car.setCarName(fields[1]);
+                car.setCarColor(fields[2]);
+                car.setCarQuantity(Integer.parseInt(fields[3].trim()));
+                return car;
+            },
+            car -> new Object[] {car.getCarId(), car.getCarName(), car.getCarColor(), car.getCarQuantity()});
+
     @Autowired
     private final CarService carService;
 
@@ -39,16 +66,63 @@ public class CarController {
         return "redirect:listCar";
     }
 
+    @PostMapping(value = "/import", consumes = {BulkTransfer.TEXT_CSV, MediaType.APPLICATION_NDJSON_VALUE})
+    @ResponseBody
+    public Map<String, Long> importCars(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                       InputStream body) throws IOException {
+        return BulkTransfer.importBody(body, contentType, CAR_COLUMNS, carService::createAll);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportCars(@RequestParam(defaultValue = "csv") String format) {
+        return BulkTransfer.export(carService.streamAll(), format, CAR_COLUMNS, "cars");
+    }
+
     @GetMapping("/listCar")
-    public String carListPage(Model model) {
-        List<Car> allCars = carService.findAll();
-        model.addAttribute("cars", allCars);
+    public String carListPage(@RequestParam(defaultValue = "0") int page,
+                              @RequestParam(defaultValue = Pagination.DEFAULT_SIZE) int size,
+                              @RequestParam(required = false) String after,
+                              ServletWebRequest request,
+                              Model model) {
+        long version = carService.modificationCount();
+        if (HtmlPages.notModified(request, version, carService.lastModified())) {
+            return null;
+        }
+        page = Pagination.page(page);
+        size = Pagination.size(size);
+        Page<Car> carPage = after != null
+                ? carService.findPageAfter(after, size)
+                : carService.findPage(page, size);
+        model.addAttribute("cars", CarRow.of(carPage.getContent()));
+        model.addAttribute("page", after != null ? null : page);
+        model.addAttribute("after", after);
+        model.addAttribute("size", size);
+        model.addAttribute("nextCursor", carPage.getNextCursor());
+        model.addAttribute(RenderedPageCache.KEY, HtmlPages.listKey(version, after != null ? null : page, size, after));
         return "CarList";
     }
 
+    @GetMapping("/search")
+    @ResponseBody
+    public List<Car> searchCars(@RequestParam(name = "q", defaultValue = "") String query,
+                                @RequestParam(defaultValue = Pagination.DEFAULT_SIZE) int limit) {
+        return carService.search(query, Pagination.size(limit));
+    }
+
     @GetMapping(value="/editCar/{carId}")
-    public String editCarPage(@PathVariable String carId, Model model) {
-        Car car = carService.findById(carId);
+    public String editCarPage(@PathVariable String carId, ServletWebRequest request, Model model) {
+        // Look again if a delete ran meanwhile, so the removal count in the tag is the one the
+        // car was read under
+        long removals;
+        Car car;
+        do {
+            removals = carService.removalCount();
+            car = carService.findById(carId);
+        } while (removals != carService.removalCount());
+        if (car != null && HtmlPages.notModified(request,
+                HtmlPages.entityTag(removals, car.getVersion()), carService.lastModified())) {
+            return null;
+        }
         model.addAttribute("car", car);
         return "EditCar";
     }
@@ -56,7 +130,12 @@ public class CarController {
     @PostMapping("/editCar")
     public String editCarPost(@ModelAttribute Car car, Model model) {
         System.out.println(car.getCarId());
-        carService.update(car.getCarId(), car);
+        try {
+            carService.update(car.getCarId(), car);
+        } catch (VersionConflictException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "This car was changed by someone else; reload it and apply your edit again", e);
+        }
         return "redirect:listCar";
     }
 
@@ -0,0 +1,40 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import org.springframework.web.util.HtmlUtils;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * One row of {@code CarList.html}, rendered by the {@code carRow} fragment. Escaped,
+ * linked and kept per stored snapshot like {@link ProductRow}; {@code carId} is raw, for
+ * the delete form's hidden field, and the edit link is relative to {@code /car/listCar}.
+ */
+public record CarRow(String carId, String carName, String carColor, String carQuantity, String editHref) {
+
+    private static final Cache<Car, CarRow> ROWS = Caffeine.newBuilder()
+            .weakKeys()
+            .maximumSize(100_000)
+            .build();
+
+    static CarRow of(Car car) {
+        return ROWS.get(car, CarRow::escape);
+    }
+
+    private static CarRow escape(Car car) {
+        return new CarRow(
+                car.getCarId(),
+                car.getCarName() == null ? null : HtmlUtils.htmlEscape(car.getCarName()),
+                car.getCarColor() == null ? null : HtmlUtils.htmlEscape(car.getCarColor()),
+                Integer.toString(car.getCarQuantity()),
+                "editCar/" + UriUtils.encodePathSegment(String.valueOf(car.getCarId()), StandardCharsets.UTF_8));
+    }
+
+    static List<CarRow> of(List<Car> cars) {
+        return cars.stream().map(CarRow::of).toList();
+    }
+}
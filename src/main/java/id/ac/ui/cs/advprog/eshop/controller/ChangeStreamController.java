@@ -0,0 +1,87 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.repository.ChangeEvent;
+import id.ac.ui.cs.advprog.eshop.repository.ChangeListener;
+import id.ac.ui.cs.advprog.eshop.repository.ChangeLog;
+import id.ac.ui.cs.advprog.eshop.service.CarService;
+import id.ac.ui.cs.advprog.eshop.service.ProductService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+
+/**
+ * Server-sent event streams of the product and car change logs.
+ *
+ * <p>Each event carries its sequence number as the event id, so a browser
+ * {@code EventSource} that reconnects sends it back in {@code Last-Event-ID} and resumes
+ * where it stopped. Other clients pass {@code ?after=} instead; {@code ?after=0} replays
+ * everything still in the log, and with neither the stream starts at the next write.
+ * A client that fell further behind than the log reaches gets a {@code reset} event with
+ * the number of writes it missed and should reload the listing. So does one that resumes
+ * from an id past the end of the log, left over from before a restart.
+ */
+@RestController
+@RequestMapping("/api/changes")
+public class ChangeStreamController {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CarService carService;
+
+    @GetMapping(value = "/products", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter productChanges(@RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId,
+                                     @RequestParam(required = false) Long after) {
+        return stream(productService.getChangeLog(), lastEventId, after);
+    }
+
+    @GetMapping(value = "/cars", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter carChanges(@RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId,
+                                 @RequestParam(required = false) Long after) {
+        return stream(carService.getChangeLog(), lastEventId, after);
+    }
+
+    private static <T> SseEmitter stream(ChangeLog<T> changes, Long lastEventId, Long after) {
+        long from = lastEventId != null ? lastEventId : after != null ? after : changes.lastSequence();
+        SseEmitter emitter = new SseEmitter();
+        ChangeLog.Subscription subscription = changes.subscribe(from, new ChangeListener<>() {
+            @Override
+            public void onChange(ChangeEvent<T> event) {
+                send(emitter, SseEmitter.event()
+                        .id(Long.toString(event.sequence()))
+                        .name(event.type().name().toLowerCase(Locale.ROOT))
+                        .data(event, MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void onMissed(long count) {
+                send(emitter, SseEmitter.event().name("reset").data(count));
+            }
+        });
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(e -> subscription.close());
+        return emitter;
+    }
+
+    /**
+     * Sends on the subscription's thread; a client that went away ends the subscription.
+     */
+    private static void send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
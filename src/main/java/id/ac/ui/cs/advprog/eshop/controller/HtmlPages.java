@@ -0,0 +1,59 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Conditional GETs for the Thymeleaf pages.
+ *
+ * <p>A listing is tagged with the repository's modification count and an edit page with its
+ * repository's removal count and its entity's version, so a browser revalidating its copy
+ * gets a 304 before anything is rendered. The version alone could repeat: it starts over
+ * when an id is deleted and created again. Page tags also name the run of the application: the counts start over on
+ * restart, and the templates may have changed in between. The {@code /api} listings share
+ * the same run marker.
+ */
+final class HtmlPages {
+
+    private static final String RUN = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    private HtmlPages() {
+    }
+
+    static String tag(long version) {
+        return "\"" + RUN + "-" + version + "\"";
+    }
+
+    /**
+     * Tag of an edit page showing the entity at {@code version}, looked up while the
+     * repository's removal count stayed at {@code removals}.
+     */
+    static String entityTag(long removals, long version) {
+        return "\"" + RUN + "-" + removals + "." + version + "\"";
+    }
+
+    /**
+     * Sets {@code ETag} and {@code Last-Modified} for the page and returns {@code true}, with
+     * the response status set to 304, if the client's copy is still current. The page must be
+     * revalidated on every use: without {@code no-cache} a browser would guess a freshness
+     * lifetime from {@code Last-Modified} and show a stale page without asking.
+     */
+    static boolean notModified(ServletWebRequest request, long version, long lastModified) {
+        return notModified(request, tag(version), lastModified);
+    }
+
+    static boolean notModified(ServletWebRequest request, String etag, long lastModified) {
+        if (request.getResponse() != null) {
+            request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        }
+        return request.checkNotModified(etag, lastModified);
+    }
+
+    /**
+     * Key for {@link RenderedPageCache}: a list page at {@code version} with its normalised
+     * paging parameters.
+     */
+    static String listKey(long version, Integer page, int size, String after) {
+        return version + "?page=" + page + "&size=" + size + "&after=" + after;
+    }
+}
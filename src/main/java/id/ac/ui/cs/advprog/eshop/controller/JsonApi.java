@@ -0,0 +1,110 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import id.ac.ui.cs.advprog.eshop.repository.VersionConflictException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Shared pieces of the {@code /api} controllers: entity tags and JSON pages.
+ *
+ * <p>A listing is tagged with the repository's modification count and a single entity with
+ * its version, so a client that sends the tag back in {@code If-None-Match} gets a 304
+ * before anything is read or rendered. The same entity tag in {@code If-Match} makes an
+ * update conditional on the version it names. Updates must name a version, in
+ * {@code If-Match} or in the body; only {@code If-Match: *} replaces whatever is stored.
+ */
+final class JsonApi {
+
+    private JsonApi() {
+    }
+
+    static String tag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Tag of a listing. The modification count starts over on restart, so like the page tags
+     * it names the run of the application; a count from an earlier run never matches.
+     */
+    static String listTag(long modificationCount) {
+        return HtmlPages.tag(modificationCount);
+    }
+
+    /**
+     * The version named by an {@code If-Match} header, or 0, which updates unconditionally,
+     * for {@code *}.
+     */
+    static long version(String ifMatch) {
+        String tag = ifMatch.trim();
+        if ("*".equals(tag)) {
+            return 0;
+        }
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        try {
+            return Long.parseLong(tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")
+                    ? tag.substring(1, tag.length() - 1)
+                    : tag);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Unknown entity tag " + ifMatch);
+        }
+    }
+
+    /**
+     * The version an update must find: the one named by {@code If-Match}, else the body's.
+     * Versions start at 1, so a body without one reads as 0 and counts as naming none;
+     * an update that names none is refused with 428 rather than applied unconditionally.
+     */
+    static long expectedVersion(String ifMatch, long bodyVersion) {
+        if (ifMatch != null) {
+            return version(ifMatch);
+        }
+        if (bodyVersion <= 0) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_REQUIRED,
+                    "Send If-Match with the entity tag you read, or If-Match: * to replace unconditionally");
+        }
+        return bodyVersion;
+    }
+
+    static ResponseStatusException notFound(String entity, String id) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "No " + entity + " with id " + id);
+    }
+
+    /**
+     * 412 when the client named the version it expected in {@code If-Match}, 409 when the
+     * stale version came in the body.
+     */
+    static ResponseStatusException conflict(boolean ifMatch, VersionConflictException e) {
+        return new ResponseStatusException(ifMatch ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT,
+                "Current version is " + e.getCurrentVersion(), e);
+    }
+
+    /**
+     * Writes the page as {@code {"content": [...], "nextCursor": ...}} straight to the
+     * response, one item at a time, instead of building the whole document in memory first.
+     */
+    static <T> ResponseEntity<StreamingResponseBody> page(Page<T> page, String etag) {
+        StreamingResponseBody body = out -> {
+            JsonGenerator json = BulkTransfer.MAPPER.getFactory().createGenerator(out);
+            json.writeStartObject();
+            json.writeArrayFieldStart("content");
+            for (T item : page.getContent()) {
+                json.writeObject(item);
+            }
+            json.writeEndArray();
+            json.writeStringField("nextCursor", page.getNextCursor());
+            json.writeEndObject();
+            json.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .body(body);
+    }
+}
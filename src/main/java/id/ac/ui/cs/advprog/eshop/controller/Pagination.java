@@ -0,0 +1,30 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+/**
+ * Bounds for the {@code page} and {@code size} request parameters of the list pages and
+ * the JSON API.
+ */
+final class Pagination {
+
+    static final String DEFAULT_SIZE = "20";
+    static final int MAX_SIZE = 100;
+    static final int MAX_API_SIZE = 1000;
+
+    private Pagination() {
+    }
+
+    static int page(int page) {
+        return Math.max(page, 0);
+    }
+
+    static int size(int size) {
+        return Math.min(Math.max(size, 1), MAX_SIZE);
+    }
+
+    /**
+     * Page size for the JSON API, which streams its pages and so allows larger ones.
+     */
+    static int apiSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_API_SIZE);
+    }
+}
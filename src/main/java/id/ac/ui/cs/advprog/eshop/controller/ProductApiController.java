@@ -0,0 +1,108 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.model.InventoryStatistics;
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.VersionConflictException;
+import id.ac.ui.cs.advprog.eshop.service.ProductService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.net.URI;
+
+/**
+ * JSON API for products, next to the HTML pages of {@link ProductController}.
+ */
+@RestController
+@RequestMapping("/api/products")
+public class ProductApiController {
+
+    @Autowired
+    private ProductService service;
+
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> listProducts(@RequestParam(defaultValue = "0") int page,
+                                                              @RequestParam(defaultValue = Pagination.DEFAULT_SIZE) int size,
+                                                              @RequestParam(required = false) String after,
+                                                              WebRequest request) {
+        // Read the count before the page, so the page is never older than its tag
+        String etag = JsonApi.listTag(service.modificationCount());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        size = Pagination.apiSize(size);
+        Page<Product> products = after != null
+                ? service.findPageAfter(after, size)
+                : service.findPage(Pagination.page(page), size);
+        return JsonApi.page(products, etag);
+    }
+
+    /**
+     * Count, total and range of the quantities, kept up to date on
+     * every write instead of summed over the products per request.
+     */
+    @GetMapping("/statistics")
+    public InventoryStatistics statistics() {
+        return service.statistics();
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Product> getProduct(@PathVariable String id, WebRequest request) {
+        Product product = service.findById(id).orElseThrow(() -> JsonApi.notFound("product", id));
+        String etag = JsonApi.tag(product.getVersion());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(product);
+    }
+
+    @PostMapping
+    public ResponseEntity<Product> createProduct(@RequestBody Product product) {
+        // Ids are assigned here; a client-chosen id could replace an existing product
+        product.setProductId(null);
+        Product created = service.create(product);
+        return ResponseEntity.created(URI.create("/api/products/" + created.getProductId()))
+                .eTag(JsonApi.tag(created.getVersion()))
+                .body(created);
+    }
+
+    /**
+     * Replaces the product's name and quantity. The update only applies if the product is
+     * still at the version named by {@code If-Match}, or else by the body's {@code version};
+     * with neither the request is refused with 428.
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<Product> updateProduct(@PathVariable String id, @RequestBody Product product,
+                                                 @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (service.findById(id).isEmpty()) {
+            throw JsonApi.notFound("product", id);
+        }
+        product.setProductId(id);
+        product.setVersion(JsonApi.expectedVersion(ifMatch, product.getVersion()));
+        try {
+            Product updated = service.update(product);
+            return ResponseEntity.ok().eTag(JsonApi.tag(updated.getVersion())).body(updated);
+        } catch (VersionConflictException e) {
+            throw JsonApi.conflict(ifMatch != null, e);
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteProduct(@PathVariable String id) {
+        service.deleteById(id);
+        return ResponseEntity.noContent().build();
+    }
+}
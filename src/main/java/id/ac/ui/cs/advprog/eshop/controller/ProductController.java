@@ -1,9 +1,15 @@
 package id.ac.ui.cs.advprog.eshop.controller;
 
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import id.ac.ui.cs.advprog.eshop.repository.VersionConflictException;
 import id.ac.ui.cs.advprog.eshop.model.Product;
 import id.ac.ui.cs.advprog.eshop.service.ProductService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 
@@ -11,12 +17,36 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Controller
 @RequestMapping("/product")
 public class ProductController {
 
+    private static final BulkTransfer.Columns<Product> PRODUCT_COLUMNS = new BulkTransfer.Columns<>(
+            Product.class,
+            new String[] {"productId", "productName", "productQuantity"},
+            fields -> {
+                Product product = new Product();
+                product.setProductId(BulkTransfer.optional(fields[0]));
+                product.setProductName(fields[1]);
+                product.setProductQuantity(Integer.parseInt(fields[2].trim()));
+                return product;
+            },
+            product -> new Object[] {product.getProductId(), product.getProductName(), product.getProductQuantity()});
+
     @Autowired
     private ProductService service;
 
@@ -33,27 +63,87 @@ public class ProductController {
         return "redirect:list";
     }
 
+    @PostMapping(value = "/import", consumes = {BulkTransfer.TEXT_CSV, MediaType.APPLICATION_NDJSON_VALUE})
+    @ResponseBody
+    public Map<String, Long> importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                            InputStream body) throws IOException {
+        return BulkTransfer.importBody(body, contentType, PRODUCT_COLUMNS, service::createAll);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "csv") String format) {
+        return BulkTransfer.export(service.streamAll(), format, PRODUCT_COLUMNS, "products");
+    }
+
     @GetMapping("/list")
-    public String productListPage(Model model) {
-        model.addAttribute("products", service.findAll());
+    public String productListPage(@RequestParam(defaultValue = "0") int page,
+                                  @RequestParam(defaultValue = Pagination.DEFAULT_SIZE) int size,
+                                  @RequestParam(required = false) String after,
+                                  @RequestParam(defaultValue = "false") boolean stream,
+                                  ServletWebRequest request,
+                                  Model model) {
+        long version = service.modificationCount();
+        if (HtmlPages.notModified(request, version, service.lastModified())) {
+            return null;
+        }
+        if (stream) {
+            // Thymeleaf renders rows straight off the repository iterator and flushes them
+            // as the response buffer fills, so memory stays flat for any catalog size
+            model.addAttribute("products", ProductRow.of(service.streamAll()));
+            return "ProductList";
+        }
+        page = Pagination.page(page);
+        size = Pagination.size(size);
+        // A cursor takes precedence over the page number: it stays stable while products are added or removed
+        Page<Product> productPage = after != null
+                ? service.findPageAfter(after, size)
+                : service.findPage(page, size);
+        model.addAttribute("products", ProductRow.of(productPage.getContent()));
+        model.addAttribute("page", after != null ? null : page);
+        model.addAttribute("after", after);
+        model.addAttribute("size", size);
+        model.addAttribute("nextCursor", productPage.getNextCursor());
+        model.addAttribute(RenderedPageCache.KEY, HtmlPages.listKey(version, after != null ? null : page, size, after));
         return "ProductList";
     }
 
+    @GetMapping("/search")
+    @ResponseBody
+    public List<Product> searchProducts(@RequestParam(name = "q", defaultValue = "") String query,
+                                        @RequestParam(defaultValue = Pagination.DEFAULT_SIZE) int limit) {
+        return service.search(query, Pagination.size(limit));
+    }
+
     @GetMapping("/edit/{id}")
-    public String editProductPage(@PathVariable String id, Model model) {
-        // Check if the product exists
-        var productOptional = service.findById(id);
+    public String editProductPage(@PathVariable String id, ServletWebRequest request, Model model) {
+        // Check if the product exists; look again if a delete ran meanwhile, so the removal
+        // count in the tag is the one the product was read under
+        long removals;
+        Optional<Product> productOptional;
+        do {
+            removals = service.removalCount();
+            productOptional = service.findById(id);
+        } while (removals != service.removalCount());
         if (productOptional.isEmpty()) {
             return "redirect:/product/list"; // Redirect to product list if product is not found
         }
         Product product = productOptional.get();
+        if (HtmlPages.notModified(request,
+                HtmlPages.entityTag(removals, product.getVersion()), service.lastModified())) {
+            return null;
+        }
         model.addAttribute("product", product);
         return "EditProduct";
     }
 
     @PostMapping("/edit")
     public String editProductPost(@ModelAttribute Product product, Model model) {
-        service.update(product);
+        try {
+            service.update(product);
+        } catch (VersionConflictException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "This product was changed by someone else; reload it and apply your edit again", e);
+        }
         return "redirect:list";
     }
 
@@ -0,0 +1,68 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.springframework.web.util.HtmlUtils;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * One row of {@code ProductList.html}, rendered by the {@code productRow} fragment.
+ *
+ * <p>The text is HTML-escaped and the links are built once, here, so the fragment writes
+ * each cell with {@code th:utext} or a plain {@code th:href} instead of running the
+ * conversion service, the escaper and the link builder for every cell of every row. The
+ * links are relative to {@code /product/list}.
+ *
+ * <p>Rows are kept per stored snapshot, compared by identity, so a product that has not
+ * changed since the last listing is not escaped again. An update stores a new snapshot,
+ * which misses, and the old snapshot's row goes once the snapshot is collected.
+ */
+public record ProductRow(String productName, String productQuantity, String editHref, String deleteHref) {
+
+    private static final Cache<Product, ProductRow> ROWS = Caffeine.newBuilder()
+            .weakKeys()
+            .maximumSize(100_000)
+            .build();
+
+    static ProductRow of(Product product) {
+        return ROWS.get(product, ProductRow::escape);
+    }
+
+    private static ProductRow escape(Product product) {
+        String id = UriUtils.encodePathSegment(String.valueOf(product.getProductId()), StandardCharsets.UTF_8);
+        return new ProductRow(
+                product.getProductName() == null ? null : HtmlUtils.htmlEscape(product.getProductName()),
+                Integer.toString(product.getProductQuantity()),
+                "edit/" + id,
+                "delete/" + id);
+    }
+
+    static List<ProductRow> of(List<Product> products) {
+        return products.stream().map(ProductRow::of).toList();
+    }
+
+    /**
+     * Maps {@code products} as the template iterates, so a streamed listing stays streamed.
+     */
+    static Iterable<ProductRow> of(Iterable<Product> products) {
+        return () -> {
+            Iterator<Product> iterator = products.iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public ProductRow next() {
+                    return of(iterator.next());
+                }
+            };
+        };
+    }
+}
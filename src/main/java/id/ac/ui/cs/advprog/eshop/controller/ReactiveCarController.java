@@ -0,0 +1,58 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.service.ReactiveCarService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Streaming car endpoints, the counterpart of {@link ReactiveProductController}.
+ */
+@RestController
+@RequestMapping("/api/reactive/cars")
+public class ReactiveCarController {
+
+    @Autowired
+    private ReactiveCarService service;
+
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Car> streamCars(@RequestParam(required = false) String color) {
+        return color != null ? service.findByColor(color) : service.streamAll();
+    }
+
+    @GetMapping(value = "/search", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Car> searchCars(@RequestParam(name = "q", defaultValue = "") String query,
+                                @RequestParam(defaultValue = Pagination.DEFAULT_SIZE) int limit) {
+        return service.search(query, Pagination.apiSize(limit));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<Car> getCar(@PathVariable String id) {
+        return service.findById(id).switchIfEmpty(Mono.error(() -> JsonApi.notFound("car", id)));
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Car> createCar(@RequestBody Car car) {
+        car.setCarId(null);
+        return service.create(car);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> deleteCar(@PathVariable String id) {
+        return service.deleteCarById(id);
+    }
+}
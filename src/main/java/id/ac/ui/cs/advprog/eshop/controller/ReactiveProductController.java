@@ -0,0 +1,60 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.service.ReactiveProductService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Streaming product endpoints. Listings are sent as JSON lines or server-sent events, one
+ * product per line or event, written as the repository iterator yields them; Spring MVC
+ * requests the next product only once the previous one has been written to the socket.
+ */
+@RestController
+@RequestMapping("/api/reactive/products")
+public class ReactiveProductController {
+
+    @Autowired
+    private ReactiveProductService service;
+
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Product> streamProducts() {
+        return service.streamAll();
+    }
+
+    @GetMapping(value = "/search", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Product> searchProducts(@RequestParam(name = "q", defaultValue = "") String query,
+                                        @RequestParam(defaultValue = Pagination.DEFAULT_SIZE) int limit) {
+        return service.search(query, Pagination.apiSize(limit));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<Product> getProduct(@PathVariable String id) {
+        return service.findById(id).switchIfEmpty(Mono.error(() -> JsonApi.notFound("product", id)));
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Product> createProduct(@RequestBody Product product) {
+        product.setProductId(null);
+        return service.create(product);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> deleteProduct(@PathVariable String id) {
+        return service.deleteById(id);
+    }
+}
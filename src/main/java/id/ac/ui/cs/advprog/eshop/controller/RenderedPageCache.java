@@ -0,0 +1,103 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.ViewResolver;
+import org.springframework.web.servlet.view.UrlBasedViewResolver;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Keeps the rendered HTML of pages whose model names a {@link #KEY}, so an unchanged list
+ * page is written from memory instead of being rendered by the template engine again.
+ *
+ * <p>Controllers put the modification count into the key, so a write never has to evict
+ * anything: the next request asks for a new key, and pages of old counts age out of the
+ * bounded cache. Sits just ahead of the template resolver it wraps; pages without a key,
+ * redirects and forwards go straight to the template resolver.
+ */
+public class RenderedPageCache implements ViewResolver, Ordered {
+
+    /**
+     * Model attribute holding the key of the rendered page. It must identify everything the
+     * page shows, including the version of the data.
+     */
+    public static final String KEY = "renderedPageKey";
+
+    private final ViewResolver templates;
+    private final int order;
+    private final Cache<String, Rendered> pages;
+
+    /**
+     * A page as it was written to the response.
+     */
+    public record Rendered(String contentType, byte[] body) {
+    }
+
+    /**
+     * @param order must come before {@code templates}' own order
+     */
+    public RenderedPageCache(ViewResolver templates, int order, Cache<String, Rendered> pages) {
+        this.templates = templates;
+        this.order = order;
+        this.pages = pages;
+    }
+
+    @Override
+    public int getOrder() {
+        return order;
+    }
+
+    @Override
+    public View resolveViewName(String viewName, Locale locale) throws Exception {
+        if (viewName.startsWith(UrlBasedViewResolver.REDIRECT_URL_PREFIX)
+                || viewName.startsWith(UrlBasedViewResolver.FORWARD_URL_PREFIX)) {
+            return null;
+        }
+        View view = templates.resolveViewName(viewName, locale);
+        return view == null ? null : new CachedView(viewName, view);
+    }
+
+    private final class CachedView implements View {
+
+        private final String viewName;
+        private final View view;
+
+        CachedView(String viewName, View view) {
+            this.viewName = viewName;
+            this.view = view;
+        }
+
+        @Override
+        public String getContentType() {
+            return view.getContentType();
+        }
+
+        @Override
+        public void render(Map<String, ?> model, HttpServletRequest request, HttpServletResponse response)
+                throws Exception {
+            Object key = model == null ? null : model.get(KEY);
+            if (key == null) {
+                view.render(model, request, response);
+                return;
+            }
+            String pageKey = viewName + " " + key;
+            Rendered page = pages.getIfPresent(pageKey);
+            if (page != null) {
+                response.setContentType(page.contentType());
+                response.setContentLength(page.body().length);
+                response.getOutputStream().write(page.body());
+                return;
+            }
+            ContentCachingResponseWrapper buffer = new ContentCachingResponseWrapper(response);
+            view.render(model, request, buffer);
+            pages.put(pageKey, new Rendered(buffer.getContentType(), buffer.getContentAsByteArray()));
+            buffer.copyBodyToResponse();
+        }
+    }
+}
@@ -8,4 +8,5 @@ public class Car {
     private String carName;
     private String carColor;
     private int carQuantity;
+    private long version;
 }
\ No newline at end of file
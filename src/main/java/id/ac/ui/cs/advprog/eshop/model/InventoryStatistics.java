@@ -0,0 +1,28 @@
+package id.ac.ui.cs.advprog.eshop.model;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Aggregates over a whole catalog. {@code minQuantity} and {@code maxQuantity} are
+ * {@code null} when the catalog is empty; {@code countsByColor} is keyed by lower-cased
+ * color and empty for entities without one.
+ */
+@Getter
+public class InventoryStatistics {
+    private final long count;
+    private final long totalQuantity;
+    private final Integer minQuantity;
+    private final Integer maxQuantity;
+    private final Map<String, Long> countsByColor;
+
+    public InventoryStatistics(long count, long totalQuantity, Integer minQuantity, Integer maxQuantity,
+                               Map<String, Long> countsByColor) {
+        this.count = count;
+        this.totalQuantity = totalQuantity;
+        this.minQuantity = minQuantity;
+        this.maxQuantity = maxQuantity;
+        this.countsByColor = countsByColor;
+    }
+}
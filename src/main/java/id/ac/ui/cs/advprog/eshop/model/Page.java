@@ -0,0 +1,24 @@
+package id.ac.ui.cs.advprog.eshop.model;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * One page of a listing. {@code nextCursor} points just past the last item of this page
+ * and is {@code null} when there is nothing left to list.
+ */
+@Getter
+public class Page<T> {
+    private final List<T> content;
+    private final String nextCursor;
+
+    public Page(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
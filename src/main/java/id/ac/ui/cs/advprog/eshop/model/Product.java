@@ -8,4 +8,5 @@ public class Product {
     private String productId;
     private String productName;
     private int productQuantity;
+    private long version;
 }
\ No newline at end of file
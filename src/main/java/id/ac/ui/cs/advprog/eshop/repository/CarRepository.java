@@ -1,52 +1,37 @@
 package id.ac.ui.cs.advprog.eshop.repository;
 
 import id.ac.ui.cs.advprog.eshop.model.Car;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
-import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
-import java.util.UUID;
 
+/**
+ * Cars on the shared {@link EntityRepository} engine, grouped by color.
+ */
 @Repository
-public class CarRepository {
+public class CarRepository extends EntityRepository<Car> {
 
-    private final List<Car> carData = new ArrayList<>();
-
-    public Car createCar(Car car) {
-        if (car.getCarId() == null) {
-            UUID uuid = UUID.randomUUID();
-            car.setCarId(uuid.toString());
-        }
-        carData.add(car);
-        return car;
+    public CarRepository() {
+        this(new IndexedStore<>());
     }
 
-    public Iterator<Car> findAll() {
-        return carData.iterator();
+    /**
+     * Keeps the cars in {@code carData}, which must be empty and not shared.
+     */
+    @Autowired
+    public CarRepository(EntityStore<Car> carData) {
+        super(carData, EntityType.car());
     }
 
-    public Car findById(String id) {
-        for (Car car : carData) {
-            if (car.getCarId().equals(id)) {
-                return car;
-            }
-        }
-        return null;
-    }
-
-    public Car update(String id, Car updatedCar) {
-        Car existingCar = findById(id);
-        if (existingCar != null) {
-            existingCar.setCarName(updatedCar.getCarName());
-            existingCar.setCarColor(updatedCar.getCarColor());
-            existingCar.setCarQuantity(updatedCar.getCarQuantity());
-            return existingCar;
-        }
-        return null;
+    public Car createCar(Car car) {
+        return create(car);
     }
 
-    public void delete(String id) {
-        carData.removeIf(car -> car.getCarId().equals(id));
+    /**
+     * Cars of the given color, ignoring case.
+     */
+    public List<Car> findByColor(String color) {
+        return findByGroup(color);
     }
-}
\ No newline at end of file
+}
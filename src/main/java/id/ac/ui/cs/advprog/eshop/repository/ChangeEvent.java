@@ -0,0 +1,12 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+/**
+ * One write published by a {@link ChangeLog}. {@code value} is the entity as written, or
+ * {@code null} for a delete.
+ */
+public record ChangeEvent<T>(long sequence, Type type, String id, T value) {
+
+    public enum Type {
+        CREATE, UPDATE, DELETE
+    }
+}
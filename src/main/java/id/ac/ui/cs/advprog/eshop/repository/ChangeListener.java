@@ -0,0 +1,18 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+/**
+ * Receives the events of a {@link ChangeLog} subscription, in sequence order, on the
+ * subscription's own thread.
+ */
+public interface ChangeListener<T> {
+
+    void onChange(ChangeEvent<T> event);
+
+    /**
+     * Called instead of delivering {@code count} events that were overwritten before this
+     * listener got to them, or that were logged before a subscription that started from a
+     * sequence the log never reached. A listener that mirrors the store should reload it.
+     */
+    default void onMissed(long count) {
+    }
+}
@@ -0,0 +1,237 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ordered log of the creates, updates and deletes applied to an {@link EntityStore}, kept in
+ * a bounded ring buffer.
+ *
+ * <p>Every write takes the next sequence number, starting at 1, from inside the store's
+ * critical section for its id, so the events of one id are in the order they were applied.
+ * Publishing is one atomic increment and one compare-and-set on the slot: writers never
+ * wait for readers. Readers pull events after the last sequence they saw and can resume
+ * from any sequence still in the ring. A reader that falls more than the capacity behind
+ * finds its events overwritten and is told how many it missed.
+ *
+ * <p>Events are published when the write is applied. A write that a later listener
+ * rejects, such as a failed log append in durable mode, keeps its event in the log,
+ * followed by one that puts the previous value back.
+ */
+public class ChangeLog<T> implements StoreListener<T> {
+
+    /**
+     * One read from the log: the events found, how many were overwritten before they could be
+     * read, and the sequence to read after next time.
+     */
+    public record Batch<T>(List<ChangeEvent<T>> events, long missed, long lastSequence) {
+    }
+
+    /**
+     * Events kept by default: enough for a consumer to ride out a pause of a few seconds
+     * under heavy write load.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private final AtomicReferenceArray<ChangeEvent<T>> ring;
+    private final int mask;
+    private final AtomicLong lastClaimed = new AtomicLong();
+    private final Queue<Thread> waiters = new ConcurrentLinkedQueue<>();
+
+    public ChangeLog(EntityStore<T> store) {
+        this(store, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity number of events kept; rounded up to a power of two
+     */
+    public ChangeLog(EntityStore<T> store, int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.ring = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        store.addListener(this);
+    }
+
+    @Override
+    public void onPut(String id, T previous, T current) {
+        publish(previous == null ? ChangeEvent.Type.CREATE : ChangeEvent.Type.UPDATE, id, current);
+    }
+
+    @Override
+    public void onRemove(String id, T previous) {
+        publish(ChangeEvent.Type.DELETE, id, null);
+    }
+
+    /**
+     * Wakes the readers waiting for new events, once the write is visible.
+     */
+    @Override
+    public void afterWrite() {
+        for (Thread waiter : waiters) {
+            LockSupport.unpark(waiter);
+        }
+    }
+
+    private void publish(ChangeEvent.Type type, String id, T value) {
+        long sequence = lastClaimed.incrementAndGet();
+        ChangeEvent<T> event = new ChangeEvent<>(sequence, type, id, value);
+        int slot = (int) (sequence & mask);
+        while (true) {
+            ChangeEvent<T> occupant = ring.get(slot);
+            if (occupant != null && occupant.sequence() > sequence) {
+                // A whole lap of writers overtook this one; readers count the event as missed
+                return;
+            }
+            if (ring.compareAndSet(slot, occupant, event)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * The sequence of the latest write, or 0 before the first one. Reading after it returns
+     * only writes that have not happened yet.
+     */
+    public long lastSequence() {
+        return lastClaimed.get();
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Returns up to {@code max} events with sequences after {@code after}, without waiting.
+     */
+    public Batch<T> readAfter(long after, int max) {
+        List<ChangeEvent<T>> events = new ArrayList<>(Math.min(max, 64));
+        long missed = 0;
+        long next = after + 1;
+        while (events.size() < max) {
+            ChangeEvent<T> event = ring.get((int) (next & mask));
+            if (event == null || event.sequence() < next) {
+                // Not written yet
+                break;
+            }
+            if (event.sequence() > next) {
+                long oldest = Math.max(next + 1, lastClaimed.get() - mask);
+                missed += oldest - next;
+                next = oldest;
+                continue;
+            }
+            events.add(event);
+            next++;
+        }
+        return new Batch<>(events, missed, next - 1);
+    }
+
+    /**
+     * Like {@link #readAfter}, but waits up to {@code timeout} for an event if there is none
+     * yet. The returned batch is empty if none arrived in time.
+     */
+    public Batch<T> awaitAfter(long after, int max, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Thread current = Thread.currentThread();
+        while (true) {
+            Batch<T> batch = readAfter(after, max);
+            long remaining = deadline - System.nanoTime();
+            if (!batch.events().isEmpty() || batch.missed() > 0 || remaining <= 0 || current.isInterrupted()) {
+                return batch;
+            }
+            waiters.add(current);
+            try {
+                // Checked again after registering, so a write in between is not slept through
+                batch = readAfter(after, max);
+                if (!batch.events().isEmpty() || batch.missed() > 0) {
+                    return batch;
+                }
+                LockSupport.parkNanos(this, remaining);
+            } finally {
+                waiters.remove(current);
+            }
+        }
+    }
+
+    /**
+     * Delivers every event after {@code after} to {@code listener} on a virtual thread of its
+     * own, so a slow listener only falls behind itself. The subscription ends when it is
+     * closed or the listener throws.
+     *
+     * <p>An {@code after} beyond {@link #lastSequence()} can only come from an earlier log,
+     * such as one from before a restart; waiting for it would skip every write until the
+     * sequence caught up. The listener is told it missed the writes logged so far instead,
+     * and delivery starts at the next write.
+     */
+    public Subscription subscribe(long after, ChangeListener<T> listener) {
+        Subscriber subscriber = new Subscriber(after, listener);
+        subscriber.thread = Thread.ofVirtual().name("change-log-subscriber").start(subscriber);
+        return subscriber;
+    }
+
+    /**
+     * A running {@link #subscribe subscription}; closing it stops delivery.
+     */
+    public interface Subscription extends Closeable {
+
+        @Override
+        void close();
+    }
+
+    private final class Subscriber implements Runnable, Subscription {
+
+        private static final int BATCH_SIZE = 256;
+        private static final Duration POLL_INTERVAL = Duration.ofSeconds(1);
+
+        private final ChangeListener<T> listener;
+        private volatile boolean closed;
+        private volatile Thread thread;
+        private long cursor;
+
+        Subscriber(long after, ChangeListener<T> listener) {
+            this.cursor = after;
+            this.listener = listener;
+        }
+
+        @Override
+        public void run() {
+            try {
+                long last = lastSequence();
+                if (cursor > last) {
+                    listener.onMissed(last);
+                    cursor = last;
+                }
+                while (!closed) {
+                    Batch<T> batch = awaitAfter(cursor, BATCH_SIZE, POLL_INTERVAL);
+                    if (batch.missed() > 0) {
+                        listener.onMissed(batch.missed());
+                    }
+                    for (ChangeEvent<T> event : batch.events()) {
+                        if (closed) {
+                            return;
+                        }
+                        listener.onChange(event);
+                    }
+                    cursor = batch.lastSequence();
+                }
+            } catch (RuntimeException e) {
+                closed = true;
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            Thread running = thread;
+            if (running != null) {
+                LockSupport.unpark(running);
+            }
+        }
+    }
+}
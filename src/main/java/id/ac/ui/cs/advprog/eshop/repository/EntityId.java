@@ -0,0 +1,87 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import java.util.UUID;
+
+/**
+ * A UUID entity id as its two 64-bit halves, so hashing and comparing it touches two
+ * {@code long}s instead of a 36-character string. {@link IndexedStore} and
+ * {@link StockLedger} key their id maps by it, and the off-heap store keeps its halves in
+ * its id table. The secondary indexes ({@link SearchIndex}, {@link SortedIndex},
+ * {@link HashIndex}) still hold id strings, since their results are looked up in the
+ * store by string.
+ *
+ * <p>Only ids in canonical form, lower-case hex exactly as {@link UUID#toString()} prints
+ * them, are turned into an {@code EntityId}; printing it again must give back the same
+ * string. Any other id, including upper-case UUIDs, stays a plain string key, so ids that
+ * were valid before keep working and stay distinct.
+ */
+public record EntityId(long high, long low) {
+
+    private static final int LENGTH = 36;
+
+    /**
+     * The key to store {@code id} under: an {@code EntityId} for a canonical UUID, the
+     * string itself otherwise. Parsing allocates nothing, but the key of a UUID is a new
+     * 32-byte record on every call, lookups included; only the off-heap store's id table
+     * looks ids up by their two halves without allocating.
+     */
+    public static Object key(String id) {
+        return isCanonical(id) ? new EntityId(highBits(id), lowBits(id)) : id;
+    }
+
+    /**
+     * Returns the id, or {@code null} if {@code id} is not a canonical UUID.
+     */
+    public static EntityId parse(CharSequence id) {
+        return isCanonical(id) ? new EntityId(highBits(id), lowBits(id)) : null;
+    }
+
+    /**
+     * Whether {@code id} is a UUID in the form {@link UUID#toString()} prints. Allocates
+     * nothing.
+     */
+    public static boolean isCanonical(CharSequence id) {
+        if (id == null || id.length() != LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < LENGTH; i++) {
+            char c = id.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The most significant 64 bits of a canonical UUID, parsed without allocating.
+     */
+    public static long highBits(CharSequence id) {
+        return hex(id, 0, 8) << 32 | hex(id, 9, 13) << 16 | hex(id, 14, 18);
+    }
+
+    /**
+     * The least significant 64 bits of a canonical UUID, parsed without allocating.
+     */
+    public static long lowBits(CharSequence id) {
+        return hex(id, 19, 23) << 48 | hex(id, 24, 36);
+    }
+
+    private static long hex(CharSequence text, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            value = value << 4 | (c <= '9' ? c - '0' : c - 'a' + 10);
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return new UUID(high, low).toString();
+    }
+}
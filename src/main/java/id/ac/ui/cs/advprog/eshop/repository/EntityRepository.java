@@ -0,0 +1,239 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.InventoryStatistics;
+import id.ac.ui.cs.advprog.eshop.model.Page;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/**
+ * Repository engine shared by every entity: an {@link EntityStore} backend plus the
+ * listeners derived from it (search, quantity and group indexes, stock reservations,
+ * statistics, the change log), all driven by an {@link EntityType}.
+ *
+ * <p>Every entity gets the same semantics from here: a {@code null} or empty id is replaced
+ * by a generated one on create, lookups return {@link Optional}, and updates are
+ * compare-and-set on the version. {@link ProductRepository} and {@link CarRepository} only
+ * add their entity's method names, so whichever backend is configured serves both.
+ */
+public class EntityRepository<T> {
+    /**
+     * Version of a newly created value. Version 0 on an update means the caller did not
+     * read a version, so the update is applied unconditionally.
+     */
+    static final long FIRST_VERSION = 1;
+
+    private final EntityStore<T> store;
+    private final EntityType<T> type;
+    private final SearchIndex<T> searchIndex;
+    private final SortedIndex<T> quantityIndex;
+    private final HashIndex<T> groupIndex;
+    private final StockLedger<T> stock;
+    private final ModificationCounter<T> modifications;
+    private final ChangeLog<T> changes;
+    private final StoreStatistics<T> statistics;
+
+    /**
+     * Keeps the values in {@code store}, which must be empty and not shared.
+     */
+    public EntityRepository(EntityStore<T> store, EntityType<T> type) {
+        this.store = store;
+        this.type = type;
+        this.searchIndex = new SearchIndex<>(store, type.searchFields());
+        this.quantityIndex = new SortedIndex<>(store, type.quantityOf());
+        this.groupIndex = type.groupOf() == null ? null : new HashIndex<>(store, type.groupOf());
+        this.stock = new StockLedger<>(store, type.quantityOf());
+        this.modifications = new ModificationCounter<>(store);
+        this.changes = new ChangeLog<>(store);
+        this.statistics = new StoreStatistics<>(store, type.quantityOf(), type.groupOf());
+    }
+
+    /**
+     * Stores {@code value} at {@link #FIRST_VERSION}, or, if its id is taken, in place of the
+     * stored value at the version after that one's, so a replaced value never goes back to a
+     * version an editor may still hold.
+     */
+    public T create(T value) {
+        prepare(value);
+        return store.put(type.idOf().apply(value), value, this::carryVersion);
+    }
+
+    public void createAll(Collection<T> values) {
+        for (T value : values) {
+            prepare(value);
+        }
+        store.putAll(values, type.idOf(), this::carryVersion);
+    }
+
+    private void carryVersion(T previous, T value) {
+        type.versionSetter().accept(value, type.versionOf().applyAsLong(previous) + 1);
+    }
+
+    private void prepare(T value) {
+        String id = type.idOf().apply(value);
+        if (id == null || id.isEmpty()) {
+            type.idSetter().accept(value, IdGenerator.next());
+        }
+        type.versionSetter().accept(value, FIRST_VERSION);
+    }
+
+    /**
+     * The underlying store, for components that observe or persist its writes.
+     */
+    public EntityStore<T> getStore() {
+        return store;
+    }
+
+    /**
+     * Goes up with every write, so an unchanged count means unchanged values.
+     */
+    public long modificationCount() {
+        return modifications.get();
+    }
+
+    /**
+     * Goes up with every delete. Read before and after looking a value up, an unchanged
+     * count together with the value's version identifies that value within the run.
+     */
+    public long removalCount() {
+        return modifications.removals();
+    }
+
+    /**
+     * Time of the latest write, in milliseconds since the epoch.
+     */
+    public long lastModified() {
+        return modifications.lastModified();
+    }
+
+    /**
+     * Ordered log of the creates, updates and deletes, for consumers that follow the values.
+     */
+    public ChangeLog<T> getChangeLog() {
+        return changes;
+    }
+
+    /**
+     * Count, total, lowest and highest quantity and counts per group key, maintained on
+     * every write so this costs O(1) plus O(keys) rather than a scan of the values.
+     */
+    public InventoryStatistics statistics() {
+        OptionalInt min = quantityIndex.min();
+        OptionalInt max = quantityIndex.max();
+        return new InventoryStatistics(statistics.count(), statistics.totalQuantity(),
+                min.isPresent() ? min.getAsInt() : null, max.isPresent() ? max.getAsInt() : null,
+                statistics.groupCounts());
+    }
+
+    public Iterator<T> findAll() {
+        return store.iterator();
+    }
+
+    public Page<T> findPage(long offset, int size) {
+        return store.page(offset, size);
+    }
+
+    public Page<T> findPageAfter(String cursor, int size) {
+        return store.pageAfter(cursor, size);
+    }
+
+    public Optional<T> findById(String id) {
+        return Optional.ofNullable(store.get(id));
+    }
+
+    /**
+     * Values with a searched field containing a word starting with each word of
+     * {@code query}.
+     */
+    public List<T> search(String query, int limit) {
+        return searchIndex.search(query, limit);
+    }
+
+    /**
+     * Values with a quantity between {@code min} and {@code max} inclusive, lowest first.
+     */
+    public List<T> findByQuantityBetween(int min, int max) {
+        return quantityIndex.range(min, max);
+    }
+
+    /**
+     * Values whose group field equals {@code key}, ignoring case; always empty for an
+     * entity without one.
+     */
+    public List<T> findByGroup(String key) {
+        return groupIndex == null ? List.of() : groupIndex.find(key);
+    }
+
+    /**
+     * Replaces the value stored under {@code id} if its version still equals
+     * {@code updated}'s version, and returns the new snapshot with the next version, or
+     * {@code null} if the id is absent.
+     *
+     * @throws VersionConflictException if another update got there first
+     */
+    public T update(String id, T updated) {
+        // Swap in a fresh snapshot instead of mutating the stored value, so readers and
+        // the store's listeners see either the old or the new value but never a mix
+        return store.update(id, existing -> {
+            long currentVersion = type.versionOf().applyAsLong(existing);
+            VersionConflictException.check(type.idOf().apply(existing),
+                    type.versionOf().applyAsLong(updated), currentVersion);
+            return nextVersion(existing, type.copy().apply(updated));
+        });
+    }
+
+    /**
+     * Holds back {@code quantity} units for a checkout. Returns {@code false} if fewer than
+     * that many are available or the id does not exist.
+     */
+    public boolean reserve(String id, int quantity) {
+        return stock.reserve(id, quantity);
+    }
+
+    /**
+     * Sells {@code quantity} reserved units: lowers the stored quantity and its reservations
+     * together. Returns the new snapshot, or {@code null} if the id is absent.
+     */
+    public T commit(String id, int quantity) {
+        T sold = store.update(id, existing -> {
+            T next = type.copy().apply(existing);
+            type.quantitySetter().accept(next, stock.remaining(id, quantity));
+            return nextVersion(existing, next);
+        });
+        if (sold != null) {
+            stock.commit(id, quantity);
+        }
+        return sold;
+    }
+
+    /**
+     * Gives {@code quantity} reserved units back, for example when a checkout is abandoned.
+     */
+    public void release(String id, int quantity) {
+        stock.release(id, quantity);
+    }
+
+    public int availableStock(String id) {
+        return stock.available(id);
+    }
+
+    public void delete(String id) {
+        store.remove(id);
+    }
+
+    EntityType<T> type() {
+        return type;
+    }
+
+    /**
+     * Gives {@code next} the id of {@code existing} and the version after it.
+     */
+    T nextVersion(T existing, T next) {
+        type.idSetter().accept(next, type.idOf().apply(existing));
+        type.versionSetter().accept(next, type.versionOf().applyAsLong(existing) + 1);
+        return next;
+    }
+}
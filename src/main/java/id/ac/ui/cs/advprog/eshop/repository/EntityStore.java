@@ -0,0 +1,94 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Storage engine behind a repository: entities by string id, listed in insertion order
+ * (or in id order for {@link SortedStore}).
+ *
+ * <p>Writes of one id are applied one at a time and reported to every {@link StoreListener}
+ * in that order. Reads never block on writes of other ids, and iteration is weakly
+ * consistent rather than fail-fast.
+ */
+public interface EntityStore<T> {
+
+    /**
+     * Registers a listener that is told about every write from inside that id's critical
+     * section, so it sees the writes of one id in the order they were applied.
+     */
+    void addListener(StoreListener<T> listener);
+
+    /**
+     * Starts recording latency, lock-wait and size metrics for this store under the
+     * {@code store} tag {@code name}.
+     */
+    void bindMetrics(MeterRegistry registry, String name);
+
+    /**
+     * Runs the writes made by {@code writes} on the calling thread as one batch: each write
+     * is applied and visible as usual, but the listeners' {@link StoreListener#afterWrite}
+     * runs once at the end instead of after every write, so in durable mode the whole batch
+     * shares one log commit.
+     */
+    void batch(Runnable writes);
+
+    /**
+     * Inserts the value, or replaces the value stored under the same id in place.
+     */
+    default T put(String id, T value) {
+        return put(id, value, null);
+    }
+
+    /**
+     * Like {@link #put(String, Object)}, but when a value is already stored under the id,
+     * {@code replacing} is called with it and the new value first, inside the id's critical
+     * section, so the new value can carry state such as the version over from the old one.
+     */
+    T put(String id, T value, BiConsumer<? super T, ? super T> replacing);
+
+    /**
+     * Inserts a batch of values, kept together in the listing order.
+     */
+    default void putAll(Collection<? extends T> values, Function<? super T, String> idOf) {
+        putAll(values, idOf, null);
+    }
+
+    /**
+     * Like {@link #putAll(Collection, Function)}, calling {@code replacing} as
+     * {@link #put(String, Object, BiConsumer)} does for every value that replaces another.
+     */
+    void putAll(Collection<? extends T> values, Function<? super T, String> idOf,
+                BiConsumer<? super T, ? super T> replacing);
+
+    T get(String id);
+
+    /**
+     * Atomically replaces the value stored under the id with the snapshot returned by
+     * {@code update}. Returns the new snapshot, or {@code null} if the id is absent.
+     */
+    T update(String id, UnaryOperator<T> update);
+
+    void remove(String id);
+
+    Iterator<T> iterator();
+
+    /**
+     * Returns the {@code size} values that follow the first {@code offset} ones.
+     */
+    Page<T> page(long offset, int size);
+
+    /**
+     * Returns the {@code size} values stored after the position encoded in {@code cursor}.
+     * A {@code null} or malformed cursor starts from the beginning.
+     */
+    Page<T> pageAfter(String cursor, int size);
+
+    int size();
+}
@@ -0,0 +1,63 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * What an {@link EntityRepository} needs to know about an entity: how to read and set its
+ * id, version and quantity, how to copy its editable fields into a fresh snapshot, which
+ * fields are searched, and optionally the field it is counted and looked up by.
+ *
+ * @param copy       returns a new value with the editable fields of the given one; the
+ *                   repository sets the id and version
+ * @param groupOf    the field for {@link EntityRepository#findByGroup} and per-key counts,
+ *                   or {@code null} for none
+ */
+public record EntityType<T>(Function<T, String> idOf,
+                            BiConsumer<T, String> idSetter,
+                            ToLongFunction<T> versionOf,
+                            ObjLongConsumer<T> versionSetter,
+                            ToIntFunction<T> quantityOf,
+                            ObjIntConsumer<T> quantitySetter,
+                            UnaryOperator<T> copy,
+                            List<Function<T, String>> searchFields,
+                            Function<T, String> groupOf) {
+
+    public static EntityType<Product> product() {
+        return new EntityType<>(Product::getProductId, Product::setProductId,
+                Product::getVersion, Product::setVersion,
+                Product::getProductQuantity, Product::setProductQuantity,
+                product -> {
+                    Product copy = new Product();
+                    copy.setProductName(product.getProductName());
+                    copy.setProductQuantity(product.getProductQuantity());
+                    return copy;
+                },
+                List.of(Product::getProductName),
+                null);
+    }
+
+    public static EntityType<Car> car() {
+        return new EntityType<>(Car::getCarId, Car::setCarId,
+                Car::getVersion, Car::setVersion,
+                Car::getCarQuantity, Car::setCarQuantity,
+                car -> {
+                    Car copy = new Car();
+                    copy.setCarName(car.getCarName());
+                    copy.setCarColor(car.getCarColor());
+                    copy.setCarQuantity(car.getCarQuantity());
+                    return copy;
+                },
+                List.of(Car::getCarName, Car::getCarColor),
+                Car::getCarColor);
+    }
+}
@@ -0,0 +1,97 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Secondary index from a string field to the ids of the values in an {@link EntityStore}
+ * that have it, kept up to date as a {@link StoreListener}. Equality queries cost
+ * O(1 + k). Keys are compared ignoring case, and {@code null} fields are not indexed.
+ *
+ * <p>Candidates are checked against the store's current value before they are returned, so
+ * a query racing with an update never returns a value with a different key.
+ */
+public class HashIndex<T> implements StoreListener<T> {
+
+    private final EntityStore<T> store;
+    private final Function<T, String> field;
+    private final Map<String, Set<String>> ids = new ConcurrentHashMap<>();
+
+    /**
+     * Indexes {@code field} of the values in {@code store} and starts listening to its
+     * writes. Values already in the store are not indexed.
+     */
+    public HashIndex(EntityStore<T> store, Function<T, String> field) {
+        this.store = store;
+        this.field = field;
+        store.addListener(this);
+    }
+
+    @Override
+    public void onPut(String id, T previous, T current) {
+        String key = keyOf(current);
+        if (previous != null) {
+            String previousKey = keyOf(previous);
+            if (Objects.equals(previousKey, key)) {
+                return;
+            }
+            unindex(previousKey, id);
+        }
+        if (key != null) {
+            // Added inside compute() so a concurrent unindex cannot drop the set in between
+            ids.compute(key, (k, keyIds) -> {
+                Set<String> updated = keyIds == null ? ConcurrentHashMap.newKeySet() : keyIds;
+                updated.add(id);
+                return updated;
+            });
+        }
+    }
+
+    @Override
+    public void onRemove(String id, T previous) {
+        unindex(keyOf(previous), id);
+    }
+
+    /**
+     * Returns the values whose field equals {@code key}, ignoring case.
+     */
+    public List<T> find(String key) {
+        List<T> results = new ArrayList<>();
+        if (key == null) {
+            return results;
+        }
+        String normalized = key.toLowerCase(Locale.ROOT);
+        Set<String> matching = ids.get(normalized);
+        if (matching == null) {
+            return results;
+        }
+        for (String id : matching) {
+            T value = store.get(id);
+            if (value != null && normalized.equals(keyOf(value))) {
+                results.add(value);
+            }
+        }
+        return results;
+    }
+
+    private void unindex(String key, String id) {
+        if (key == null) {
+            return;
+        }
+        ids.computeIfPresent(key, (k, keyIds) -> {
+            keyIds.remove(id);
+            return keyIds.isEmpty() ? null : keyIds;
+        });
+    }
+
+    private String keyOf(T value) {
+        String key = field.apply(value);
+        return key == null ? null : key.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,38 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generates time-ordered ids in the UUID version 7 layout: 48 bits of Unix time in
+ * milliseconds, then the version and variant bits, then 74 random bits.
+ *
+ * <p>The random bits come from {@link ThreadLocalRandom}, so threads never contend the way
+ * they do on the shared {@link java.security.SecureRandom} behind
+ * {@link java.util.UUID#randomUUID()}. The ids are unique but not secret: do not use them
+ * where guessing one must be hard. Ids from different milliseconds sort by creation time;
+ * ids from the same millisecond sort randomly.
+ */
+public final class IdGenerator {
+
+    private static final long VERSION_7 = 0x7000L;
+    private static final long RANDOM_A_MASK = 0x0FFFL;
+    private static final long VARIANT_RFC_4122 = 0x8000000000000000L;
+    private static final long RANDOM_B_MASK = 0x3FFFFFFFFFFFFFFFL;
+
+    private IdGenerator() {
+    }
+
+    /**
+     * A new id in canonical UUID string form.
+     */
+    public static String next() {
+        return nextId().toString();
+    }
+
+    public static EntityId nextId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long high = System.currentTimeMillis() << 16 | VERSION_7 | (random.nextLong() & RANDOM_A_MASK);
+        long low = VARIANT_RFC_4122 | (random.nextLong() & RANDOM_B_MASK);
+        return new EntityId(high, low);
+    }
+}
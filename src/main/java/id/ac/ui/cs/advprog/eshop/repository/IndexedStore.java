@@ -0,0 +1,338 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Thread-safe in-memory {@link EntityStore}, the default engine of the repositories.
+ *
+ * <p>Values are indexed by id in a {@link ConcurrentHashMap}, so lookups, replacements and
+ * removals are O(1); UUID ids are keyed by their {@link EntityId} bits rather than by the
+ * string. A {@link ConcurrentSkipListMap} keyed by insertion position keeps the listing
+ * order. Writers of the same id are serialised by one of a fixed set of striped
+ * {@link ReentrantLock}s, so writers of different ids mostly proceed in parallel. The
+ * index's own {@code compute()} would lock a hash bin with a monitor, which a virtual thread
+ * waiting for it stays pinned to its carrier for.
+ *
+ * <p>Stored values are treated as immutable snapshots: an update swaps in a new value
+ * instead of mutating the current one, so readers never observe a half-applied write.
+ */
+public class IndexedStore<T> implements EntityStore<T> {
+
+    private static final int STRIPES = 64;
+
+    private record Entry<T>(long position, T value) {
+    }
+
+    private final Map<Object, Entry<T>> index = new ConcurrentHashMap<>();
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final NavigableMap<Long, T> ordered = new ConcurrentSkipListMap<>();
+    private final AtomicLong nextPosition = new AtomicLong();
+    private final StoreListeners<T> listeners = new StoreListeners<>();
+    private volatile StoreMetrics metrics;
+
+    public IndexedStore() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Registers a listener that is told about every write from inside that id's critical
+     * section, so it sees the writes of one id in the order they were applied.
+     */
+    @Override
+    public void addListener(StoreListener<T> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void batch(Runnable writes) {
+        listeners.batch(writes);
+    }
+
+    /**
+     * Starts recording latency, lock-wait and size metrics for this store under the
+     * {@code store} tag {@code name}.
+     */
+    @Override
+    public void bindMetrics(MeterRegistry registry, String name) {
+        metrics = new StoreMetrics(registry, name, this::size);
+    }
+
+    @Override
+    public T put(String id, T value, BiConsumer<? super T, ? super T> replacing) {
+        long start = System.nanoTime();
+        Object key = EntityId.key(id);
+        ReentrantLock lock = lock(key, start);
+        try {
+            index.put(key, store(id, index.get(key), value, -1, replacing));
+        } finally {
+            lock.unlock();
+        }
+        afterWrite();
+        record(StoreMetrics.WRITE, start);
+        return value;
+    }
+
+    /**
+     * Inserts a batch of values. Positions for the whole batch are reserved with a single
+     * atomic increment, so concurrent writers cannot interleave with the batch in the
+     * listing order. The batch is grouped by lock stripe and each stripe is locked once;
+     * values of one id share a stripe, so they are still written in batch order.
+     */
+    @Override
+    public void putAll(Collection<? extends T> values, Function<? super T, String> idOf,
+                       BiConsumer<? super T, ? super T> replacing) {
+        long start = System.nanoTime();
+        List<T> batch = new ArrayList<>(values);
+        int count = batch.size();
+        long position = nextPosition.getAndAdd(count);
+        String[] ids = new String[count];
+        Object[] keys = new Object[count];
+        int[] stripes = new int[count];
+        // Counting sort of the batch by stripe: stripe s owns order[bounds[s]] to order[bounds[s + 1] - 1]
+        int[] bounds = new int[STRIPES + 1];
+        for (int i = 0; i < count; i++) {
+            ids[i] = idOf.apply(batch.get(i));
+            keys[i] = EntityId.key(ids[i]);
+            stripes[i] = stripe(keys[i]);
+            bounds[stripes[i] + 1]++;
+        }
+        for (int s = 0; s < STRIPES; s++) {
+            bounds[s + 1] += bounds[s];
+        }
+        int[] order = new int[count];
+        int[] next = bounds.clone();
+        for (int i = 0; i < count; i++) {
+            order[next[stripes[i]]++] = i;
+        }
+        for (int s = 0; s < STRIPES; s++) {
+            if (bounds[s] == bounds[s + 1]) {
+                continue;
+            }
+            ReentrantLock lock = lock(s, start);
+            try {
+                for (int j = bounds[s]; j < bounds[s + 1]; j++) {
+                    int i = order[j];
+                    index.put(keys[i], store(ids[i], index.get(keys[i]), batch.get(i), position + i, replacing));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        afterWrite();
+        record(StoreMetrics.BATCH_WRITE, start);
+    }
+
+    @Override
+    public T get(String id) {
+        if (id == null) {
+            return null;
+        }
+        listeners.checkAvailable();
+        long start = System.nanoTime();
+        Entry<T> entry = index.get(EntityId.key(id));
+        record(StoreMetrics.READ, start);
+        return entry == null ? null : entry.value();
+    }
+
+    /**
+     * Atomically replaces the value stored under the id with the snapshot returned by
+     * {@code update}. Returns the new snapshot, or {@code null} if the id is absent.
+     */
+    @Override
+    public T update(String id, UnaryOperator<T> update) {
+        if (id == null) {
+            return null;
+        }
+        long start = System.nanoTime();
+        Object key = EntityId.key(id);
+        Entry<T> entry = null;
+        ReentrantLock lock = lock(key, start);
+        try {
+            Entry<T> existing = index.get(key);
+            if (existing != null) {
+                entry = store(id, existing, update.apply(existing.value()), -1, null);
+                index.put(key, entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+        afterWrite();
+        record(StoreMetrics.WRITE, start);
+        return entry == null ? null : entry.value();
+    }
+
+    @Override
+    public void remove(String id) {
+        if (id == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        Object key = EntityId.key(id);
+        ReentrantLock lock = lock(key, start);
+        try {
+            Entry<T> existing = index.get(key);
+            if (existing != null) {
+                ordered.remove(existing.position());
+                try {
+                    listeners.onRemove(id, existing.value());
+                } catch (RuntimeException e) {
+                    ordered.put(existing.position(), existing.value());
+                    throw e;
+                }
+                index.remove(key);
+            }
+        } finally {
+            lock.unlock();
+        }
+        afterWrite();
+        record(StoreMetrics.WRITE, start);
+    }
+
+    /**
+     * Writes {@code value} under {@code id} to the ordered view and returns the index entry
+     * for it; runs while holding the id's lock. A new id takes {@code position}, or the next
+     * free position when it is negative. If a listener rejects the write, the ordered view is
+     * rolled back before rethrowing.
+     */
+    private Entry<T> store(String id, Entry<T> existing, T value, long position,
+                           BiConsumer<? super T, ? super T> replacing) {
+        if (existing != null && replacing != null) {
+            replacing.accept(existing.value(), value);
+        }
+        long slot = existing != null ? existing.position()
+                : position >= 0 ? position : nextPosition.getAndIncrement();
+        ordered.put(slot, value);
+        try {
+            listeners.onPut(id, existing == null ? null : existing.value(), value);
+        } catch (RuntimeException e) {
+            if (existing == null) {
+                ordered.remove(slot);
+            } else {
+                ordered.put(slot, existing.value());
+            }
+            throw e;
+        }
+        return new Entry<>(slot, value);
+    }
+
+    private void record(int operation, long start) {
+        StoreMetrics current = metrics;
+        if (current != null) {
+            current.record(operation, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Takes the lock of the id with index key {@code key} and records how long the writer
+     * waited for it, measured from the start of the operation.
+     */
+    private ReentrantLock lock(Object key, long start) {
+        return lock(stripe(key), start);
+    }
+
+    private ReentrantLock lock(int stripe, long start) {
+        ReentrantLock lock = locks[stripe];
+        lock.lock();
+        StoreMetrics current = metrics;
+        if (current != null) {
+            current.recordLockWait(System.nanoTime() - start);
+        }
+        return lock;
+    }
+
+    private static int stripe(Object key) {
+        return (key.hashCode() & 0x7FFFFFFF) % STRIPES;
+    }
+
+    private void afterWrite() {
+        listeners.afterWrite();
+    }
+
+    /**
+     * Iterates in insertion order. The iterator is weakly consistent: it never throws
+     * {@link java.util.ConcurrentModificationException} while other threads write.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        listeners.checkAvailable();
+        return ordered.values().iterator();
+    }
+
+    /**
+     * Returns the {@code size} values that follow the first {@code offset} ones.
+     */
+    @Override
+    public Page<T> page(long offset, int size) {
+        listeners.checkAvailable();
+        long start = System.nanoTime();
+        Iterator<Map.Entry<Long, T>> entries = ordered.entrySet().iterator();
+        for (long skipped = 0; skipped < offset && entries.hasNext(); skipped++) {
+            entries.next();
+        }
+        Page<T> page = collect(entries, size);
+        record(StoreMetrics.PAGE, start);
+        return page;
+    }
+
+    /**
+     * Returns the {@code size} values stored after the position encoded in {@code cursor}.
+     * Cursors stay valid when the value they point at is deleted or new values are added,
+     * so walking the pages never skips or repeats a value. A {@code null} or malformed
+     * cursor starts from the beginning.
+     */
+    @Override
+    public Page<T> pageAfter(String cursor, int size) {
+        listeners.checkAvailable();
+        Long position = parseCursor(cursor);
+        long start = System.nanoTime();
+        Map<Long, T> tail = position == null ? ordered : ordered.tailMap(position, false);
+        Page<T> page = collect(tail.entrySet().iterator(), size);
+        record(StoreMetrics.PAGE, start);
+        return page;
+    }
+
+    private Page<T> collect(Iterator<Map.Entry<Long, T>> entries, int size) {
+        List<T> content = new ArrayList<>(size);
+        long lastPosition = -1;
+        while (content.size() < size && entries.hasNext()) {
+            Map.Entry<Long, T> entry = entries.next();
+            content.add(entry.getValue());
+            lastPosition = entry.getKey();
+        }
+        String nextCursor = entries.hasNext() ? Long.toString(lastPosition) : null;
+        return new Page<>(content, nextCursor);
+    }
+
+    private static Long parseCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+}
@@ -0,0 +1,58 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the writes applied to an {@link EntityStore}: a cheap version number for the whole
+ * store, for conditional requests on listings. While the count stays the same, so does
+ * every value in the store.
+ *
+ * <p>The count goes up in {@link #afterWrite}, once the write is visible. A reader that
+ * reads the count before the values may get values newer than the count, but never older,
+ * so content tagged with the count is never staler than its tag.
+ *
+ * <p>{@link #lastModified} is the wall-clock time of the latest write, or of the counter's
+ * creation before the first one, for {@code Last-Modified} headers.
+ *
+ * <p>{@link #removals} counts deletes, for tags on a single value. A value's version
+ * starts over when its id is deleted and created again; between two deletes that cannot
+ * happen, so the pair of removal count and version names one value for the run. The count
+ * goes up inside the delete's critical section, before the value is gone. A delete that a
+ * later listener rejects is still counted, which only costs a cache miss.
+ */
+public class ModificationCounter<T> implements StoreListener<T> {
+
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong removals = new AtomicLong();
+    private volatile long lastModified = System.currentTimeMillis();
+
+    public ModificationCounter(EntityStore<T> store) {
+        store.addListener(this);
+    }
+
+    @Override
+    public void onRemove(String id, T previous) {
+        removals.incrementAndGet();
+    }
+
+    @Override
+    public void afterWrite() {
+        lastModified = System.currentTimeMillis();
+        count.incrementAndGet();
+    }
+
+    public long get() {
+        return count.get();
+    }
+
+    public long removals() {
+        return removals.get();
+    }
+
+    /**
+     * Milliseconds since the epoch at the latest write.
+     */
+    public long lastModified() {
+        return lastModified;
+    }
+}
@@ -0,0 +1,300 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous write path of an {@link EntityRepository}. Callers put creates, imports,
+ * updates, sales and deletes on a bounded queue and get a future back; a single writer
+ * thread takes them off in batches and applies each batch inside {@link EntityStore#batch},
+ * so in durable mode a batch costs one log commit and fsync rather than one per request.
+ *
+ * <p>Consecutive updates of the same id within a batch are coalesced into one store write:
+ * each is checked against the version the previous one produced and gets the snapshot it
+ * would have got on its own, but the listeners, the change log and the write-ahead log see
+ * only the final snapshot. Mutations of one id keep their order; any other write of an id
+ * ends its run of updates.
+ *
+ * <p>Reservations are not queued. {@link EntityRepository#reserve} and
+ * {@link EntityRepository#release} only change the in-memory stock ledger, with a
+ * compare-and-set, so there is nothing to batch or log. They stay ordered with the sales
+ * that use them: a caller reserves before it submits a {@link #commit}, which checks the
+ * reservation when the writer applies it.
+ *
+ * <p>Futures complete on the writer thread once the batch is visible and, in durable mode,
+ * on disk. When the queue is full, callers block until the writer catches up.
+ */
+public class MutationPipeline<T> implements Closeable {
+
+    private enum Kind {
+        CREATE, CREATE_ALL, UPDATE, COMMIT, DELETE
+    }
+
+    private static final class Mutation<T> {
+        final Kind kind;
+        final String id;
+        final T value;
+        final List<T> values;
+        final int quantity;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        T result;
+        RuntimeException failure;
+
+        Mutation(Kind kind, String id, T value) {
+            this(kind, id, value, null, 0);
+        }
+
+        Mutation(Kind kind, String id, T value, List<T> values, int quantity) {
+            this.kind = kind;
+            this.id = id;
+            this.value = value;
+            this.values = values;
+            this.quantity = quantity;
+        }
+    }
+
+    /**
+     * Thrown from inside a coalesced update when every update in the run failed, so the
+     * store leaves the value untouched instead of rewriting it.
+     */
+    private static final class NothingApplied extends RuntimeException {
+        NothingApplied() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final long POLL_MILLIS = 100;
+
+    private final EntityRepository<T> repository;
+    private final BlockingQueue<Mutation<T>> queue;
+    private final int maxBatch;
+    private final ThreadFactory threadFactory;
+    private volatile boolean closed;
+    private Thread writer;
+
+    /**
+     * @param capacity mutations that may wait in the queue before callers block
+     * @param maxBatch most mutations applied in one batch
+     */
+    public MutationPipeline(EntityRepository<T> repository, int capacity, int maxBatch, ThreadFactory threadFactory) {
+        this.repository = repository;
+        this.queue = new LinkedBlockingQueue<>(capacity);
+        this.maxBatch = maxBatch;
+        this.threadFactory = threadFactory;
+    }
+
+    public void start() {
+        writer = threadFactory.newThread(this::drain);
+        writer.start();
+    }
+
+    public CompletableFuture<T> create(T value) {
+        return submit(new Mutation<>(Kind.CREATE, repository.type().idOf().apply(value), value));
+    }
+
+    /**
+     * Completes with {@code null} once every value is stored, as
+     * {@link EntityRepository#createAll} would have stored them.
+     */
+    public CompletableFuture<T> createAll(List<T> values) {
+        return submit(new Mutation<>(Kind.CREATE_ALL, null, null, values, 0));
+    }
+
+    /**
+     * Completes with what {@link EntityRepository#update} would have returned.
+     */
+    public CompletableFuture<T> update(String id, T value) {
+        return submit(new Mutation<>(Kind.UPDATE, id, value));
+    }
+
+    /**
+     * Completes with what {@link EntityRepository#commit} would have returned.
+     */
+    public CompletableFuture<T> commit(String id, int quantity) {
+        return submit(new Mutation<>(Kind.COMMIT, id, null, null, quantity));
+    }
+
+    /**
+     * Completes with {@code null} once the value is gone.
+     */
+    public CompletableFuture<T> delete(String id) {
+        return submit(new Mutation<>(Kind.DELETE, id, null));
+    }
+
+    /**
+     * Waits for {@code future} and returns its value, rethrowing a failed mutation's
+     * exception as it would have been thrown by a direct write.
+     */
+    public static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private CompletableFuture<T> submit(Mutation<T> mutation) {
+        if (closed) {
+            throw new IllegalStateException("Mutation pipeline is closed");
+        }
+        try {
+            queue.put(mutation);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the mutation queue", e);
+        }
+        return mutation.future;
+    }
+
+    private void drain() {
+        List<Mutation<T>> batch = new ArrayList<>(maxBatch);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Mutation<T> first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            queue.drainTo(batch, maxBatch - 1);
+            apply(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Applies one batch, then completes its futures.
+     */
+    private void apply(List<Mutation<T>> batch) {
+        RuntimeException commitFailure = null;
+        try {
+            repository.getStore().batch(() -> applyInOrder(batch));
+        } catch (RuntimeException e) {
+            // The log commit at the end of the batch failed
+            commitFailure = e;
+        }
+        for (Mutation<T> mutation : batch) {
+            RuntimeException failure = mutation.failure != null ? mutation.failure : commitFailure;
+            if (failure != null) {
+                mutation.future.completeExceptionally(failure);
+            } else {
+                mutation.future.complete(mutation.result);
+            }
+        }
+    }
+
+    private void applyInOrder(List<Mutation<T>> batch) {
+        Map<String, List<Mutation<T>>> runs = new LinkedHashMap<>();
+        for (Mutation<T> mutation : batch) {
+            if (mutation.kind == Kind.UPDATE && mutation.id != null) {
+                runs.computeIfAbsent(mutation.id, id -> new ArrayList<>()).add(mutation);
+                continue;
+            }
+            if (mutation.kind == Kind.CREATE_ALL) {
+                for (T value : mutation.values) {
+                    endRun(runs, repository.type().idOf().apply(value));
+                }
+            } else {
+                endRun(runs, mutation.id);
+            }
+            try {
+                switch (mutation.kind) {
+                    case CREATE -> mutation.result = repository.create(mutation.value);
+                    case CREATE_ALL -> repository.createAll(mutation.values);
+                    case COMMIT -> mutation.result = repository.commit(mutation.id, mutation.quantity);
+                    case DELETE -> repository.delete(mutation.id);
+                    case UPDATE -> {
+                        // An update without an id finds nothing to update
+                    }
+                }
+            } catch (RuntimeException e) {
+                mutation.failure = e;
+            }
+        }
+        runs.forEach(this::applyUpdates);
+    }
+
+    /**
+     * Applies the pending updates of {@code id}, if any, before another write of it.
+     */
+    private void endRun(Map<String, List<Mutation<T>>> runs, String id) {
+        if (id != null) {
+            List<Mutation<T>> run = runs.remove(id);
+            if (run != null) {
+                applyUpdates(id, run);
+            }
+        }
+    }
+
+    /**
+     * Applies a run of updates of one id as one store write of the last snapshot.
+     */
+    private void applyUpdates(String id, List<Mutation<T>> run) {
+        EntityType<T> type = repository.type();
+        try {
+            repository.getStore().update(id, existing -> {
+                T current = existing;
+                for (Mutation<T> mutation : run) {
+                    try {
+                        VersionConflictException.check(id, type.versionOf().applyAsLong(mutation.value),
+                                type.versionOf().applyAsLong(current));
+                        current = repository.nextVersion(current, type.copy().apply(mutation.value));
+                        mutation.result = current;
+                    } catch (VersionConflictException e) {
+                        mutation.failure = e;
+                    }
+                }
+                if (current == existing) {
+                    throw new NothingApplied();
+                }
+                return current;
+            });
+        } catch (NothingApplied e) {
+            // Every update already carries its own conflict
+        } catch (RuntimeException e) {
+            // A listener rejected the write, so none of the run was applied
+            for (Mutation<T> mutation : run) {
+                mutation.result = null;
+                mutation.failure = e;
+            }
+        }
+    }
+
+    /**
+     * Stops taking mutations and waits for the writer to apply the ones already queued.
+     * The writer is not interrupted, since an interrupt would close the log's file channel
+     * in durable mode.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Thread running = writer;
+        if (running != null) {
+            try {
+                running.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Anything that slipped in while the writer was stopping is refused, not left hanging
+        Mutation<T> leftover;
+        while ((leftover = queue.poll()) != null) {
+            leftover.future.completeExceptionally(new IllegalStateException("Mutation pipeline is closed"));
+        }
+    }
+}
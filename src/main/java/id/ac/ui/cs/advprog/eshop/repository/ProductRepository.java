@@ -1,37 +1,39 @@
 package id.ac.ui.cs.advprog.eshop.repository;
 
 import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
-
+/**
+ * Products on the shared {@link EntityRepository} engine.
+ */
 @Repository
-public class ProductRepository {
-    private List<Product> productData = new ArrayList<>();
+public class ProductRepository extends EntityRepository<Product> {
 
-    public Product create(Product product) {
-        if (product.getProductId() == null || product.getProductId().isEmpty()) {
-            product.setProductId(UUID.randomUUID().toString());
-        }
-        productData.add(product);
-        return product;
+    public ProductRepository() {
+        this(new IndexedStore<>());
     }
 
-    public Iterator<Product> findAll() {
-        return productData.iterator();
+    /**
+     * Keeps the products in {@code productData}, which must be empty and not shared.
+     */
+    @Autowired
+    public ProductRepository(EntityStore<Product> productData) {
+        super(productData, EntityType.product());
     }
 
-    public Optional<Product> findById(String productId) {
-        return productData.stream()
-                .filter(product -> product.getProductId().equals(productId))
-                .findFirst();
+    /**
+     * Replaces the stored product if its version still equals {@code updatedProduct}'s
+     * version, and returns the new snapshot with the next version, or {@code null} if the
+     * id is absent.
+     *
+     * @throws VersionConflictException if another update got there first
+     */
+    public Product update(Product updatedProduct) {
+        return update(updatedProduct.getProductId(), updatedProduct);
     }
 
     public void deleteById(String productId) {
-        productData.removeIf(product -> product.getProductId().equals(productId));
+        delete(productId);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,208 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+
+/**
+ * Word and prefix search over string fields of the values in an {@link EntityStore}, kept
+ * up to date as a {@link StoreListener}.
+ *
+ * <p>Fields are split into lower-case words. An inverted index maps each word to the ids
+ * whose fields contain it, and the words themselves are kept sorted, so all words that start
+ * with a prefix form one contiguous range that is found in O(log n). A query matches a value
+ * when every query word is a prefix of one of the value's words: {@code "sam ca"} finds
+ * "Sampo Cap Bambang".
+ *
+ * <p>Candidates are checked against the store's current value before they are returned, so
+ * an entry left behind by a write that a later listener rejected never shows up.
+ */
+public class SearchIndex<T> implements StoreListener<T> {
+
+    private final EntityStore<T> store;
+    private final List<Function<T, String>> fields;
+    private final Map<String, Set<String>> postings = new ConcurrentHashMap<>();
+    private final NavigableSet<String> words = new ConcurrentSkipListSet<>();
+
+    /**
+     * Indexes {@code fields} of the values in {@code store} and starts listening to its
+     * writes. Values already in the store are not indexed.
+     */
+    @SafeVarargs
+    public SearchIndex(EntityStore<T> store, Function<T, String>... fields) {
+        this(store, List.of(fields));
+    }
+
+    public SearchIndex(EntityStore<T> store, List<Function<T, String>> fields) {
+        this.store = store;
+        this.fields = List.copyOf(fields);
+        store.addListener(this);
+    }
+
+    @Override
+    public void onPut(String id, T previous, T current) {
+        Set<String> before = previous == null ? Set.of() : wordsOf(previous);
+        Set<String> after = wordsOf(current);
+        for (String word : before) {
+            if (!after.contains(word)) {
+                unindex(word, id);
+            }
+        }
+        for (String word : after) {
+            if (!before.contains(word)) {
+                index(word, id);
+            }
+        }
+    }
+
+    @Override
+    public void onRemove(String id, T previous) {
+        for (String word : wordsOf(previous)) {
+            unindex(word, id);
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} values matching every word of {@code query}, in word order.
+     * Only the most selective query word is looked up in the index; the other words are
+     * checked on its candidates, so the cost depends on the candidates visited rather than
+     * on the size of the catalog.
+     */
+    public List<T> search(String query, int limit) {
+        Set<String> terms = new HashSet<>();
+        split(query, terms);
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String driver = mostSelective(terms);
+        List<T> results = new ArrayList<>(Math.min(limit, 64));
+        Set<String> visited = new HashSet<>();
+        for (String word : wordsStartingWith(driver)) {
+            Set<String> ids = postings.get(word);
+            if (ids == null) {
+                // Emptied by a concurrent remove since the range was read
+                continue;
+            }
+            for (String id : ids) {
+                if (!visited.add(id)) {
+                    continue;
+                }
+                T value = store.get(id);
+                if (value != null && matches(value, terms)) {
+                    results.add(value);
+                    if (results.size() == limit) {
+                        return results;
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Picks the term with the fewest candidate ids. The terms' prefix ranges are counted
+     * side by side, always advancing the term with the lowest count so far; the first range
+     * to run out has the lowest total, so no term is counted much past the winner's count,
+     * and a very common prefix is never counted in full.
+     */
+    private String mostSelective(Set<String> terms) {
+        List<String> candidates = new ArrayList<>(terms);
+        List<Iterator<String>> ranges = new ArrayList<>(candidates.size());
+        for (String term : candidates) {
+            ranges.add(wordsStartingWith(term).iterator());
+        }
+        long[] counts = new long[candidates.size()];
+        while (true) {
+            int lowest = 0;
+            for (int i = 1; i < counts.length; i++) {
+                if (counts[i] < counts[lowest]) {
+                    lowest = i;
+                }
+            }
+            Iterator<String> range = ranges.get(lowest);
+            if (!range.hasNext()) {
+                return candidates.get(lowest);
+            }
+            Set<String> ids = postings.get(range.next());
+            counts[lowest] += ids == null ? 0 : ids.size();
+        }
+    }
+
+    private NavigableSet<String> wordsStartingWith(String prefix) {
+        return words.subSet(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private void index(String word, String id) {
+        postings.compute(word, (key, ids) -> {
+            if (ids == null) {
+                ids = ConcurrentHashMap.newKeySet();
+                words.add(key);
+            }
+            ids.add(id);
+            return ids;
+        });
+    }
+
+    private void unindex(String word, String id) {
+        postings.computeIfPresent(word, (key, ids) -> {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                words.remove(key);
+                return null;
+            }
+            return ids;
+        });
+    }
+
+    private boolean matches(T value, Set<String> terms) {
+        Set<String> valueWords = wordsOf(value);
+        for (String term : terms) {
+            boolean found = false;
+            for (String word : valueWords) {
+                if (word.startsWith(term)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Set<String> wordsOf(T value) {
+        Set<String> valueWords = new HashSet<>();
+        for (Function<T, String> field : fields) {
+            split(field.apply(value), valueWords);
+        }
+        return valueWords;
+    }
+
+    /**
+     * Adds the lower-case runs of letters and digits in {@code text} to {@code into}.
+     */
+    private static void split(String text, Set<String> into) {
+        if (text == null) {
+            return;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                into.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+    }
+}
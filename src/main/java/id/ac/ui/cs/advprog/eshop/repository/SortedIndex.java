@@ -0,0 +1,99 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.ToIntFunction;
+
+/**
+ * Secondary index that keeps the ids of an {@link EntityStore} sorted by an int field, kept
+ * up to date as a {@link StoreListener}. Range queries cost O(log n + k).
+ *
+ * <p>Entries are {@code (field value, id)} pairs in a {@link ConcurrentSkipListSet}, so a
+ * value change is one remove plus one add under the store's lock for that id, and readers
+ * never block writers. Candidates are checked against the store's current value before
+ * they are returned, so a query racing with an update never returns a value outside the
+ * range.
+ */
+public class SortedIndex<T> implements StoreListener<T> {
+
+    private record Key(long value, String id) implements Comparable<Key> {
+        @Override
+        public int compareTo(Key other) {
+            int byValue = Long.compare(value, other.value);
+            return byValue != 0 ? byValue : id.compareTo(other.id);
+        }
+    }
+
+    private final EntityStore<T> store;
+    private final ToIntFunction<T> field;
+    private final NavigableSet<Key> entries = new ConcurrentSkipListSet<>();
+
+    /**
+     * Indexes {@code field} of the values in {@code store} and starts listening to its
+     * writes. Values already in the store are not indexed.
+     */
+    public SortedIndex(EntityStore<T> store, ToIntFunction<T> field) {
+        this.store = store;
+        this.field = field;
+        store.addListener(this);
+    }
+
+    @Override
+    public void onPut(String id, T previous, T current) {
+        int value = field.applyAsInt(current);
+        if (previous != null) {
+            int previousValue = field.applyAsInt(previous);
+            if (previousValue == value) {
+                return;
+            }
+            entries.remove(new Key(previousValue, id));
+        }
+        entries.add(new Key(value, id));
+    }
+
+    @Override
+    public void onRemove(String id, T previous) {
+        entries.remove(new Key(field.applyAsInt(previous), id));
+    }
+
+    /**
+     * Returns the values whose field lies between {@code min} and {@code max} inclusive,
+     * in ascending field order.
+     */
+    public List<T> range(int min, int max) {
+        List<T> results = new ArrayList<>();
+        if (min > max) {
+            return results;
+        }
+        for (Key key : entries.subSet(new Key(min, ""), true, new Key((long) max + 1, ""), false)) {
+            T value = store.get(key.id());
+            if (value != null && field.applyAsInt(value) == key.value()) {
+                results.add(value);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * The lowest field value in the index, or empty if it is empty. O(1).
+     */
+    public OptionalInt min() {
+        return first(entries.iterator());
+    }
+
+    /**
+     * The highest field value in the index, or empty if it is empty. O(log n).
+     */
+    public OptionalInt max() {
+        return first(entries.descendingIterator());
+    }
+
+    private static OptionalInt first(Iterator<Key> keys) {
+        // Not first()/last(), which throw if a concurrent remove empties the set
+        return keys.hasNext() ? OptionalInt.of((int) keys.next().value()) : OptionalInt.empty();
+    }
+}
@@ -0,0 +1,258 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory {@link EntityStore} that keeps its values in one {@link ConcurrentSkipListMap}
+ * sorted by id, instead of the hash index plus insertion-ordered map of
+ * {@link IndexedStore}.
+ *
+ * <p>Listings come out in id order, which for generated ids is creation order to the
+ * millisecond, and a cursor is simply the last id of the previous page. Lookups cost
+ * O(log n) instead of O(1), in exchange for one entry per value and no separate ordering
+ * structure. The skip list's own {@code compute()} may run its function more than once, so
+ * writers of one id are serialised by one of a fixed set of striped locks instead, which
+ * keeps the listener contract of {@link EntityStore}.
+ */
+public class SortedStore<T> implements EntityStore<T> {
+
+    private static final int STRIPES = 64;
+
+    private final NavigableMap<String, T> values = new ConcurrentSkipListMap<>();
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final AtomicInteger size = new AtomicInteger();
+    private final StoreListeners<T> listeners = new StoreListeners<>();
+    private volatile StoreMetrics metrics;
+
+    public SortedStore() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public void addListener(StoreListener<T> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void batch(Runnable writes) {
+        listeners.batch(writes);
+    }
+
+    @Override
+    public void bindMetrics(MeterRegistry registry, String name) {
+        metrics = new StoreMetrics(registry, name, this::size);
+    }
+
+    @Override
+    public T put(String id, T value, BiConsumer<? super T, ? super T> replacing) {
+        long start = System.nanoTime();
+        ReentrantLock lock = lock(id, start);
+        try {
+            replace(id, value, replacing);
+        } finally {
+            lock.unlock();
+        }
+        afterWrite();
+        record(StoreMetrics.WRITE, start);
+        return value;
+    }
+
+    /**
+     * Inserts a batch of values. The listing is in id order, so unlike
+     * {@link IndexedStore#putAll} the batch does not stay together in it.
+     */
+    @Override
+    public void putAll(Collection<? extends T> batch, Function<? super T, String> idOf,
+                       BiConsumer<? super T, ? super T> replacing) {
+        long start = System.nanoTime();
+        for (T value : batch) {
+            String id = idOf.apply(value);
+            ReentrantLock lock = lock(id, start);
+            try {
+                replace(id, value, replacing);
+            } finally {
+                lock.unlock();
+            }
+        }
+        afterWrite();
+        record(StoreMetrics.BATCH_WRITE, start);
+    }
+
+    @Override
+    public T get(String id) {
+        if (id == null) {
+            return null;
+        }
+        listeners.checkAvailable();
+        long start = System.nanoTime();
+        T value = values.get(id);
+        record(StoreMetrics.READ, start);
+        return value;
+    }
+
+    @Override
+    public T update(String id, UnaryOperator<T> update) {
+        if (id == null) {
+            return null;
+        }
+        long start = System.nanoTime();
+        T updated = null;
+        ReentrantLock lock = lock(id, start);
+        try {
+            T existing = values.get(id);
+            if (existing != null) {
+                updated = update.apply(existing);
+                store(id, existing, updated);
+            }
+        } finally {
+            lock.unlock();
+        }
+        afterWrite();
+        record(StoreMetrics.WRITE, start);
+        return updated;
+    }
+
+    @Override
+    public void remove(String id) {
+        if (id == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        ReentrantLock lock = lock(id, start);
+        try {
+            T existing = values.remove(id);
+            if (existing != null) {
+                try {
+                    listeners.onRemove(id, existing);
+                } catch (RuntimeException e) {
+                    values.put(id, existing);
+                    throw e;
+                }
+                size.decrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+        afterWrite();
+        record(StoreMetrics.WRITE, start);
+    }
+
+    private void replace(String id, T value, BiConsumer<? super T, ? super T> replacing) {
+        T existing = values.get(id);
+        if (existing != null && replacing != null) {
+            replacing.accept(existing, value);
+        }
+        store(id, existing, value);
+    }
+
+    /**
+     * Writes {@code value} under {@code id}; runs while holding the id's lock. If a listener
+     * rejects the write, the previous value is put back before rethrowing.
+     */
+    private void store(String id, T existing, T value) {
+        values.put(id, value);
+        try {
+            listeners.onPut(id, existing, value);
+        } catch (RuntimeException e) {
+            if (existing == null) {
+                values.remove(id);
+            } else {
+                values.put(id, existing);
+            }
+            throw e;
+        }
+        if (existing == null) {
+            size.incrementAndGet();
+        }
+    }
+
+    private ReentrantLock lock(String id, long start) {
+        ReentrantLock lock = locks[(id.hashCode() & 0x7FFFFFFF) % STRIPES];
+        lock.lock();
+        StoreMetrics current = metrics;
+        if (current != null) {
+            current.recordLockWait(System.nanoTime() - start);
+        }
+        return lock;
+    }
+
+    private void afterWrite() {
+        listeners.afterWrite();
+    }
+
+    private void record(int operation, long start) {
+        StoreMetrics current = metrics;
+        if (current != null) {
+            current.record(operation, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Iterates in id order. The iterator is weakly consistent: it never throws
+     * {@link java.util.ConcurrentModificationException} while other threads write.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        listeners.checkAvailable();
+        return values.values().iterator();
+    }
+
+    @Override
+    public Page<T> page(long offset, int size) {
+        listeners.checkAvailable();
+        long start = System.nanoTime();
+        Iterator<Map.Entry<String, T>> entries = values.entrySet().iterator();
+        for (long skipped = 0; skipped < offset && entries.hasNext(); skipped++) {
+            entries.next();
+        }
+        Page<T> page = collect(entries, size);
+        record(StoreMetrics.PAGE, start);
+        return page;
+    }
+
+    /**
+     * Returns the {@code size} values whose ids sort after {@code cursor}, the last id of
+     * the previous page. The cursor stays valid when that value is deleted.
+     */
+    @Override
+    public Page<T> pageAfter(String cursor, int size) {
+        listeners.checkAvailable();
+        long start = System.nanoTime();
+        Map<String, T> tail = cursor == null || cursor.isEmpty() ? values : values.tailMap(cursor, false);
+        Page<T> page = collect(tail.entrySet().iterator(), size);
+        record(StoreMetrics.PAGE, start);
+        return page;
+    }
+
+    private static <T> Page<T> collect(Iterator<Map.Entry<String, T>> entries, int size) {
+        List<T> content = new ArrayList<>(size);
+        String lastId = null;
+        while (content.size() < size && entries.hasNext()) {
+            Map.Entry<String, T> entry = entries.next();
+            content.add(entry.getValue());
+            lastId = entry.getKey();
+        }
+        return new Page<>(content, entries.hasNext() ? lastId : null);
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+}
@@ -0,0 +1,175 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToIntFunction;
+
+/**
+ * Stock reservations for the values of an {@link EntityStore}, kept in step with their
+ * quantity field as a {@link StoreListener}.
+ *
+ * <p>Each id has one {@link AtomicLong} that packs the units on hand (the stored quantity)
+ * into the high 32 bits and the units reserved into the low 32 bits. Because both counts
+ * live in one word, {@link #reserve} and {@link #release} are lock-free compare-and-set
+ * loops that can never hand out more than {@code onHand - reserved} units, however many
+ * threads race on the same id. The units on hand only change through the listener, inside
+ * the store's critical section for the id. A sale is two steps: {@link #remaining} inside
+ * the update that lowers the stored quantity, then {@link #commit} once it succeeded, so a
+ * rejected update leaves the reservation in place.
+ *
+ * <p>Reservations live in memory only; after a restart every unit is available again.
+ */
+public class StockLedger<T> implements StoreListener<T> {
+
+    private final ToIntFunction<T> quantityOf;
+    private final Map<Object, AtomicLong> stock = new ConcurrentHashMap<>();
+
+    /**
+     * Tracks {@code quantityOf} for the values written to {@code store} from now on.
+     */
+    public StockLedger(EntityStore<T> store, ToIntFunction<T> quantityOf) {
+        this.quantityOf = quantityOf;
+        store.addListener(this);
+    }
+
+    @Override
+    public void onPut(String id, T previous, T current) {
+        int onHand = quantityOf.applyAsInt(current);
+        Object key = EntityId.key(id);
+        AtomicLong counts = stock.get(key);
+        if (previous == null || counts == null) {
+            stock.put(key, new AtomicLong(pack(onHand, 0)));
+            return;
+        }
+        long existing;
+        do {
+            existing = counts.get();
+        } while (!counts.compareAndSet(existing, pack(onHand, reserved(existing))));
+    }
+
+    @Override
+    public void onRemove(String id, T previous) {
+        stock.remove(EntityId.key(id));
+    }
+
+    /**
+     * Reserves {@code quantity} units if that many are on hand and not yet reserved.
+     * Returns {@code false}, reserving nothing, if the id is unknown or there are not enough.
+     */
+    public boolean reserve(String id, int quantity) {
+        requirePositive(quantity);
+        AtomicLong counts = stock.get(EntityId.key(id));
+        if (counts == null) {
+            return false;
+        }
+        while (true) {
+            long current = counts.get();
+            int reserved = reserved(current);
+            if ((long) onHand(current) - reserved < quantity) {
+                return false;
+            }
+            if (counts.compareAndSet(current, pack(onHand(current), reserved + quantity))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns {@code quantity} reserved units to the available stock.
+     *
+     * @throws IllegalStateException if fewer than {@code quantity} units are reserved
+     */
+    public void release(String id, int quantity) {
+        requirePositive(quantity);
+        AtomicLong counts = counts(id);
+        while (true) {
+            long current = counts.get();
+            int reserved = reserved(current);
+            if (reserved < quantity) {
+                throw new IllegalStateException("Only " + reserved + " units of " + id + " are reserved");
+            }
+            if (counts.compareAndSet(current, pack(onHand(current), reserved - quantity))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * The units that will be on hand once {@code quantity} reserved units are sold, without
+     * changing anything. Must be called from inside the store update that writes that count,
+     * where the units on hand cannot change.
+     *
+     * @throws IllegalStateException if fewer than {@code quantity} units are reserved, or the
+     *                               quantity on hand was lowered below them in the meantime
+     */
+    public int remaining(String id, int quantity) {
+        requirePositive(quantity);
+        long current = counts(id).get();
+        int onHand = onHand(current);
+        int reserved = reserved(current);
+        if (reserved < quantity) {
+            throw new IllegalStateException("Only " + reserved + " units of " + id + " are reserved");
+        }
+        if (onHand < quantity) {
+            throw new IllegalStateException("Only " + onHand + " units of " + id + " are on hand");
+        }
+        return onHand - quantity;
+    }
+
+    /**
+     * Drops {@code quantity} units from the reservations once the update that took them off
+     * the units on hand has been stored. Until then they count against the lower on-hand
+     * figure twice, which can refuse a reservation but never oversell.
+     */
+    public void commit(String id, int quantity) {
+        requirePositive(quantity);
+        AtomicLong counts = stock.get(EntityId.key(id));
+        if (counts == null) {
+            // Deleted in the meantime, and its reservations with it
+            return;
+        }
+        long current;
+        do {
+            current = counts.get();
+        } while (!counts.compareAndSet(current, pack(onHand(current), Math.max(reserved(current) - quantity, 0))));
+    }
+
+    /**
+     * Units on hand that are not reserved, or 0 for an unknown id.
+     */
+    public int available(String id) {
+        AtomicLong counts = stock.get(EntityId.key(id));
+        if (counts == null) {
+            return 0;
+        }
+        long current = counts.get();
+        return Math.max(onHand(current) - reserved(current), 0);
+    }
+
+    private AtomicLong counts(String id) {
+        AtomicLong counts = stock.get(EntityId.key(id));
+        if (counts == null) {
+            throw new IllegalStateException("Nothing is reserved for " + id);
+        }
+        return counts;
+    }
+
+    private static void requirePositive(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive: " + quantity);
+        }
+    }
+
+    private static long pack(int onHand, int reserved) {
+        return ((long) onHand << 32) | (reserved & 0xFFFFFFFFL);
+    }
+
+    private static int onHand(long counts) {
+        return (int) (counts >> 32);
+    }
+
+    private static int reserved(long counts) {
+        return (int) counts;
+    }
+}
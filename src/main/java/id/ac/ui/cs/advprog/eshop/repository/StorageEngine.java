@@ -0,0 +1,47 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.repository.offheap.OffHeapStore;
+import id.ac.ui.cs.advprog.eshop.repository.offheap.RowLayout;
+
+import java.util.Locale;
+
+/**
+ * The {@link EntityStore} backends an {@link EntityRepository} can run on, by their
+ * configuration name.
+ */
+public enum StorageEngine {
+    /**
+     * {@link IndexedStore}: hash index plus insertion order, O(1) lookups.
+     */
+    HEAP,
+    /**
+     * {@link SortedStore}: one skip list in id order, O(log n) lookups.
+     */
+    SORTED,
+    /**
+     * {@link OffHeapStore}: compact columns outside the Java heap.
+     */
+    OFF_HEAP;
+
+    /**
+     * The engine named {@code heap}, {@code sorted} or {@code off-heap}.
+     */
+    public static StorageEngine of(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown storage engine: " + name, e);
+        }
+    }
+
+    /**
+     * A new, empty store; {@code layout} is only used by {@link #OFF_HEAP}.
+     */
+    public <T> EntityStore<T> create(RowLayout<T> layout) {
+        return switch (this) {
+            case HEAP -> new IndexedStore<>();
+            case SORTED -> new SortedStore<>();
+            case OFF_HEAP -> new OffHeapStore<>(layout);
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+/**
+ * Observes the writes applied to an {@link EntityStore}.
+ *
+ * <p>{@link #onPut} and {@link #onRemove} run while the store holds the lock of the id being
+ * written, so they must be quick and must not write to the same store. Throwing from them
+ * rejects the write; the listeners that had already seen it then get the reverse call, so
+ * whatever they derive from the store follows it back. {@link #afterWrite} runs once the
+ * write is visible and no lock is held; throwing from it fails the store, which refuses
+ * every later read and write.
+ */
+public interface StoreListener<T> {
+
+    /**
+     * Called when {@code current} is stored under {@code id}; {@code previous} is
+     * {@code null} for a new id.
+     */
+    default void onPut(String id, T previous, T current) {
+    }
+
+    default void onRemove(String id, T previous) {
+    }
+
+    default void afterWrite() {
+    }
+}
@@ -0,0 +1,152 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * The listeners of one {@link EntityStore}, how a rejected write is undone across them, the
+ * store's failed state, and the bookkeeping behind
+ * {@link EntityStore#batch}: while a thread runs a batch, {@link #afterWrite} calls from
+ * that thread are held back and made once when the batch ends. Writes from other threads
+ * are not affected.
+ */
+public final class StoreListeners<T> implements Iterable<StoreListener<T>> {
+
+    private final List<StoreListener<T>> listeners = new CopyOnWriteArrayList<>();
+    private final ReentrantLock batchLock = new ReentrantLock();
+    private volatile Thread batching;
+    // Only touched by the batching thread
+    private boolean deferred;
+    private volatile RuntimeException failure;
+
+    public void add(StoreListener<T> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public Iterator<StoreListener<T>> iterator() {
+        return listeners.iterator();
+    }
+
+    /**
+     * Tells every listener about a put. If one rejects it, the listeners that had already
+     * accepted it are told it was undone, with the put back to {@code previous} or, for a new
+     * id, a remove, before the rejection is rethrown.
+     */
+    public void onPut(String id, T previous, T current) {
+        checkAvailable();
+        int accepted = 0;
+        try {
+            for (StoreListener<T> listener : listeners) {
+                listener.onPut(id, previous, current);
+                accepted++;
+            }
+        } catch (RuntimeException e) {
+            undo(accepted, e, listener -> {
+                if (previous == null) {
+                    listener.onRemove(id, current);
+                } else {
+                    listener.onPut(id, current, previous);
+                }
+            });
+            throw e;
+        }
+    }
+
+    /**
+     * Tells every listener about a remove; a rejection is undone as for {@link #onPut}, with
+     * a put of {@code previous} as a new value.
+     */
+    public void onRemove(String id, T previous) {
+        checkAvailable();
+        int accepted = 0;
+        try {
+            for (StoreListener<T> listener : listeners) {
+                listener.onRemove(id, previous);
+                accepted++;
+            }
+        } catch (RuntimeException e) {
+            undo(accepted, e, listener -> listener.onPut(id, null, previous));
+            throw e;
+        }
+    }
+
+    /**
+     * Runs {@code reverse} on the first {@code accepted} listeners. Listeners are only ever
+     * appended, so those are the ones that accepted the write.
+     */
+    private void undo(int accepted, RuntimeException rejection, Consumer<StoreListener<T>> reverse) {
+        for (int i = 0; i < accepted; i++) {
+            try {
+                reverse.accept(listeners.get(i));
+            } catch (RuntimeException e) {
+                rejection.addSuppressed(e);
+            }
+        }
+    }
+
+    /**
+     * Tells every listener a write is visible, unless the calling thread is inside
+     * {@link #batch}, which does it once at the end. A listener that throws here fails the
+     * store: the write is already applied and cannot be taken back, so every later read and
+     * write is refused rather than served from state the listener has lost.
+     */
+    public void afterWrite() {
+        if (batching == Thread.currentThread()) {
+            deferred = true;
+            return;
+        }
+        for (StoreListener<T> listener : listeners) {
+            try {
+                listener.afterWrite();
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Throws if a listener has failed an earlier {@link #afterWrite}; stores call it before
+     * every read, and {@link #onPut} and {@link #onRemove} call it before every write.
+     */
+    public void checkAvailable() {
+        RuntimeException cause = failure;
+        if (cause != null) {
+            throw new IllegalStateException("Store failed on an earlier write", cause);
+        }
+    }
+
+    /**
+     * Runs {@code writes}, then the listeners' {@code afterWrite} once for all of them, even
+     * if {@code writes} throws part way. One batch runs at a time; a nested batch joins the
+     * outer one.
+     */
+    public void batch(Runnable writes) {
+        if (batching == Thread.currentThread()) {
+            writes.run();
+            return;
+        }
+        batchLock.lock();
+        try {
+            deferred = false;
+            batching = Thread.currentThread();
+            try {
+                writes.run();
+            } finally {
+                batching = null;
+                if (deferred) {
+                    deferred = false;
+                    afterWrite();
+                }
+            }
+        } finally {
+            batchLock.unlock();
+        }
+    }
+}
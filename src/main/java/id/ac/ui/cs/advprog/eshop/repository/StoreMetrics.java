@@ -0,0 +1,53 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Meters of one {@link EntityStore}. Every timer is registered up front and looked up by
+ * array index, so recording a sample on the hot path allocates nothing.
+ */
+public class StoreMetrics {
+
+    public static final int READ = 0;
+    public static final int WRITE = 1;
+    public static final int BATCH_WRITE = 2;
+    public static final int PAGE = 3;
+
+    private static final String[] OPERATIONS = {"read", "write", "batch-write", "page"};
+
+    private final Timer[] operationTimers = new Timer[OPERATIONS.length];
+    private final Timer lockWaitTimer;
+
+    public StoreMetrics(MeterRegistry registry, String store, IntSupplier size) {
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            operationTimers[i] = Timer.builder("eshop.store.operation")
+                    .description("Latency of repository store operations")
+                    .tags("store", store, "operation", OPERATIONS[i])
+                    .publishPercentiles(0.5, 0.99)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+        lockWaitTimer = Timer.builder("eshop.store.lock.wait")
+                .description("Time writers wait for the lock of the id they write")
+                .tags("store", store)
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        Gauge.builder("eshop.store.size", size, IntSupplier::getAsInt)
+                .description("Number of entities in the store")
+                .tags("store", store)
+                .register(registry);
+    }
+
+    public void record(int operation, long nanos) {
+        operationTimers[operation].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordLockWait(long nanos) {
+        lockWaitTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,108 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Running totals over the values of an {@link EntityStore}, kept up to date as a
+ * {@link StoreListener}: how many values there are, the sum of their quantity field and,
+ * optionally, how many values have each key of a string field (ignoring case, like
+ * {@link HashIndex}).
+ *
+ * <p>Every write adjusts the totals by the difference between the previous and the current
+ * value, so reading them is O(1) however large the store. The counters are
+ * {@link LongAdder}s, which spread concurrent increments over striped cells instead of
+ * making every writer contend on one word. The totals are read one at a time, so a reader
+ * racing with writers may see the count and the sum from slightly different moments.
+ */
+public class StoreStatistics<T> implements StoreListener<T> {
+
+    private final ToIntFunction<T> quantityOf;
+    private final Function<T, String> groupOf;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalQuantity = new LongAdder();
+    private final Map<String, LongAdder> groupCounts = new ConcurrentHashMap<>();
+
+    public StoreStatistics(EntityStore<T> store, ToIntFunction<T> quantityOf) {
+        this(store, quantityOf, null);
+    }
+
+    /**
+     * Tracks the values written to {@code store} from now on.
+     *
+     * @param groupOf the field to count values by, or {@code null} to skip per-key counts
+     */
+    public StoreStatistics(EntityStore<T> store, ToIntFunction<T> quantityOf, Function<T, String> groupOf) {
+        this.quantityOf = quantityOf;
+        this.groupOf = groupOf;
+        store.addListener(this);
+    }
+
+    @Override
+    public void onPut(String id, T previous, T current) {
+        if (previous == null) {
+            count.increment();
+            totalQuantity.add(quantityOf.applyAsInt(current));
+            adjustGroup(groupOf(current), 1);
+            return;
+        }
+        totalQuantity.add((long) quantityOf.applyAsInt(current) - quantityOf.applyAsInt(previous));
+        String previousGroup = groupOf(previous);
+        String group = groupOf(current);
+        if (!Objects.equals(previousGroup, group)) {
+            adjustGroup(previousGroup, -1);
+            adjustGroup(group, 1);
+        }
+    }
+
+    @Override
+    public void onRemove(String id, T previous) {
+        count.decrement();
+        totalQuantity.add(-quantityOf.applyAsInt(previous));
+        adjustGroup(groupOf(previous), -1);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long totalQuantity() {
+        return totalQuantity.sum();
+    }
+
+    /**
+     * Values per lower-cased key, leaving out keys no value has any more. Costs O(keys),
+     * not O(values).
+     */
+    public Map<String, Long> groupCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        groupCounts.forEach((group, adder) -> {
+            long sum = adder.sum();
+            if (sum > 0) {
+                counts.put(group, sum);
+            }
+        });
+        return counts;
+    }
+
+    private void adjustGroup(String group, int delta) {
+        if (group != null) {
+            // Emptied keys keep their adder: removing it could race with an increment
+            groupCounts.computeIfAbsent(group, key -> new LongAdder()).add(delta);
+        }
+    }
+
+    private String groupOf(T value) {
+        if (groupOf == null) {
+            return null;
+        }
+        String group = groupOf.apply(value);
+        return group == null ? null : group.toLowerCase(Locale.ROOT);
+    }
+}
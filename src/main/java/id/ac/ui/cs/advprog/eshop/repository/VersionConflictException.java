@@ -0,0 +1,33 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import lombok.Getter;
+
+/**
+ * Thrown when an update carries a version other than the stored one, meaning someone else
+ * changed the entity since the caller read it. The caller should read it again and retry.
+ */
+@Getter
+public class VersionConflictException extends RuntimeException {
+
+    private final String id;
+    private final long expectedVersion;
+    private final long currentVersion;
+
+    public VersionConflictException(String id, long expectedVersion, long currentVersion) {
+        super("Version conflict on " + id + ": expected version " + expectedVersion
+                + " but it is now at version " + currentVersion);
+        this.id = id;
+        this.expectedVersion = expectedVersion;
+        this.currentVersion = currentVersion;
+    }
+
+    /**
+     * Rejects the update unless {@code expectedVersion} is 0 (no version was read) or equals
+     * {@code currentVersion}.
+     */
+    static void check(String id, long expectedVersion, long currentVersion) {
+        if (expectedVersion != 0 && expectedVersion != currentVersion) {
+            throw new VersionConflictException(id, expectedVersion, currentVersion);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package id.ac.ui.cs.advprog.eshop.repository.offheap;
+
+/**
+ * One field of the entities in an {@link OffHeapStore}, stored for every row in a primitive
+ * array or off-heap buffer. Writes happen under the store's write lock; reads may race with
+ * them, so a torn read must either complete or throw, never loop.
+ */
+abstract class Column<T> {
+
+    /**
+     * Makes room for rows {@code 0} to {@code capacity - 1}, keeping the existing ones.
+     */
+    abstract void grow(int capacity);
+
+    abstract void write(int row, T value);
+
+    abstract void read(int row, T into);
+
+    /**
+     * Frees whatever the row holds outside the column's own arrays once it is deleted.
+     */
+    void clear(int row) {
+    }
+
+    /**
+     * Bytes this column holds outside the Java heap.
+     */
+    long offHeapBytes() {
+        return 0;
+    }
+}
@@ -0,0 +1,59 @@
+package id.ac.ui.cs.advprog.eshop.repository.offheap;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * A string field with few distinct values, such as a color, stored as an {@code int} code
+ * per row into a dictionary of the distinct values. Every row with the same value shares one
+ * {@link String}, and reading a row hands out that shared instance.
+ *
+ * <p>Codes are never reused, so the dictionary only grows; it is sized by the number of
+ * distinct values ever written, not by the number of rows.
+ */
+final class DictionaryColumn<T> extends Column<T> {
+
+    private static final int NULL = -1;
+
+    private final Function<T, String> getter;
+    private final BiConsumer<T, String> setter;
+    private final Map<String, Integer> codes = new HashMap<>();
+    private String[] dictionary = new String[16];
+    private int[] rows = new int[0];
+
+    DictionaryColumn(Function<T, String> getter, BiConsumer<T, String> setter) {
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    @Override
+    void grow(int capacity) {
+        int previous = rows.length;
+        rows = Arrays.copyOf(rows, capacity);
+        Arrays.fill(rows, previous, capacity, NULL);
+    }
+
+    @Override
+    void write(int row, T value) {
+        String text = getter.apply(value);
+        rows[row] = text == null ? NULL : codes.computeIfAbsent(text, this::define);
+    }
+
+    @Override
+    void read(int row, T into) {
+        int code = rows[row];
+        setter.accept(into, code == NULL ? null : dictionary[code]);
+    }
+
+    private int define(String text) {
+        int code = codes.size();
+        if (code == dictionary.length) {
+            dictionary = Arrays.copyOf(dictionary, code * 2);
+        }
+        dictionary[code] = text;
+        return code;
+    }
+}
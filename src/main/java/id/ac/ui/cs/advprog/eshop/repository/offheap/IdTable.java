@@ -0,0 +1,134 @@
+package id.ac.ui.cs.advprog.eshop.repository.offheap;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash table from a UUID, as its two halves, to a row number. Keys and rows
+ * live in primitive arrays, so a lookup allocates nothing and an entry costs 20 bytes at
+ * most half full, against roughly 100 for a {@link java.util.HashMap} entry with a
+ * {@link String} key.
+ *
+ * <p>Collisions are resolved by linear probing, and deletion shifts the following entries
+ * back instead of leaving tombstones. Probes are bounded by the table size so that a reader
+ * racing with a resize gives up instead of looping.
+ */
+final class IdTable {
+
+    static final int ABSENT = -1;
+
+    private long[] keys;
+    private int[] rows;
+    private int mask;
+    private int size;
+
+    IdTable() {
+        allocate(64);
+    }
+
+    int find(long msb, long lsb) {
+        long[] currentKeys = keys;
+        int[] currentRows = rows;
+        int currentMask = mask;
+        int slot = hash(msb, lsb) & currentMask;
+        for (int probes = 0; probes <= currentMask; probes++) {
+            int row = currentRows[slot];
+            if (row == ABSENT) {
+                return ABSENT;
+            }
+            if (currentKeys[2 * slot] == msb && currentKeys[2 * slot + 1] == lsb) {
+                return row;
+            }
+            slot = (slot + 1) & currentMask;
+        }
+        return ABSENT;
+    }
+
+    /**
+     * Maps the key to {@code row}; the key must not be present.
+     */
+    void insert(long msb, long lsb, int row) {
+        if (2 * (size + 1) > rows.length) {
+            resize(rows.length * 2);
+        }
+        int slot = hash(msb, lsb) & mask;
+        while (rows[slot] != ABSENT) {
+            slot = (slot + 1) & mask;
+        }
+        keys[2 * slot] = msb;
+        keys[2 * slot + 1] = lsb;
+        rows[slot] = row;
+        size++;
+    }
+
+    void delete(long msb, long lsb) {
+        int slot = hash(msb, lsb) & mask;
+        while (rows[slot] != ABSENT) {
+            if (keys[2 * slot] == msb && keys[2 * slot + 1] == lsb) {
+                shiftBack(slot);
+                size--;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Empties {@code hole} and moves back every following entry of the probe run that can
+     * no longer be reached past the hole.
+     */
+    private void shiftBack(int hole) {
+        int next = hole;
+        while (true) {
+            rows[hole] = ABSENT;
+            while (true) {
+                next = (next + 1) & mask;
+                if (rows[next] == ABSENT) {
+                    return;
+                }
+                int home = hash(keys[2 * next], keys[2 * next + 1]) & mask;
+                boolean reachable = hole <= next ? hole < home && home <= next : hole < home || home <= next;
+                if (!reachable) {
+                    break;
+                }
+            }
+            keys[2 * hole] = keys[2 * next];
+            keys[2 * hole + 1] = keys[2 * next + 1];
+            rows[hole] = rows[next];
+            hole = next;
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldRows = rows;
+        allocate(capacity);
+        for (int slot = 0; slot < oldRows.length; slot++) {
+            if (oldRows[slot] != ABSENT) {
+                int target = hash(oldKeys[2 * slot], oldKeys[2 * slot + 1]) & mask;
+                while (rows[target] != ABSENT) {
+                    target = (target + 1) & mask;
+                }
+                keys[2 * target] = oldKeys[2 * slot];
+                keys[2 * target + 1] = oldKeys[2 * slot + 1];
+                rows[target] = oldRows[slot];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        long[] newKeys = new long[2 * capacity];
+        int[] newRows = new int[capacity];
+        Arrays.fill(newRows, ABSENT);
+        keys = newKeys;
+        rows = newRows;
+        mask = capacity - 1;
+    }
+
+    private static int hash(long msb, long lsb) {
+        long h = msb ^ Long.rotateLeft(lsb, 32);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
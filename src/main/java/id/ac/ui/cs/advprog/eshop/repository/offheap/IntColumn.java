@@ -0,0 +1,35 @@
+package id.ac.ui.cs.advprog.eshop.repository.offheap;
+
+import java.util.Arrays;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * An {@code int} field stored in an {@code int[]}: four bytes a row, no boxing.
+ */
+final class IntColumn<T> extends Column<T> {
+
+    private final ToIntFunction<T> getter;
+    private final ObjIntConsumer<T> setter;
+    private int[] values = new int[0];
+
+    IntColumn(ToIntFunction<T> getter, ObjIntConsumer<T> setter) {
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    @Override
+    void grow(int capacity) {
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    void write(int row, T value) {
+        values[row] = getter.applyAsInt(value);
+    }
+
+    @Override
+    void read(int row, T into) {
+        setter.accept(into, values[row]);
+    }
+}
@@ -0,0 +1,35 @@
+package id.ac.ui.cs.advprog.eshop.repository.offheap;
+
+import java.util.Arrays;
+import java.util.function.ObjLongConsumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * A {@code long} field stored in a {@code long[]}: eight bytes a row, no boxing.
+ */
+final class LongColumn<T> extends Column<T> {
+
+    private final ToLongFunction<T> getter;
+    private final ObjLongConsumer<T> setter;
+    private long[] values = new long[0];
+
+    LongColumn(ToLongFunction<T> getter, ObjLongConsumer<T> setter) {
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    @Override
+    void grow(int capacity) {
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    void write(int row, T value) {
+        values[row] = getter.applyAsLong(value);
+    }
+
+    @Override
+    void read(int row, T into) {
+        setter.accept(into, values[row]);
+    }
+}
@@ -0,0 +1,490 @@
+package id.ac.ui.cs.advprog.eshop.repository.offheap;
+
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import id.ac.ui.cs.advprog.eshop.repository.EntityId;
+import id.ac.ui.cs.advprog.eshop.repository.EntityStore;
+import id.ac.ui.cs.advprog.eshop.repository.StoreListener;
+import id.ac.ui.cs.advprog.eshop.repository.StoreListeners;
+import id.ac.ui.cs.advprog.eshop.repository.StoreMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Compact {@link EntityStore} that keeps entities as rows of primitive columns instead of
+ * one object graph per entity, for catalogs large enough that heap size and GC time matter.
+ *
+ * <p>A new entity takes a row freed by a delete if there is one, otherwise the next row.
+ * Rows never move, so the row number is the listing position and the paging cursor: the
+ * listing follows insertion order until a delete, and a new entity then fills the hole. A
+ * walk over the pages never skips or repeats a value, though a value added meanwhile may
+ * land behind the cursor. Canonical UUID ids are kept as the
+ * two halves of their {@link EntityId} in an {@link IdTable}; any other id falls back to a
+ * heap map. The fields are laid out by a {@link RowLayout}: numbers in primitive arrays,
+ * free text as UTF-8 in direct buffers, and low-cardinality text as dictionary codes.
+ *
+ * <p>Writes are serialised by one {@link StampedLock}, and listeners run while it is held.
+ * Lookups by UUID take an optimistic read and only fall back to the read lock if a write
+ * overlapped them. Values handed out are decoded copies, so changing one does not change
+ * the store.
+ */
+public class OffHeapStore<T> implements EntityStore<T> {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final byte DEAD = 0;
+    private static final byte UUID_ID = 1;
+    private static final byte OTHER_ID = 2;
+
+    private final RowLayout<T> layout;
+    private final List<Column<T>> columns;
+    private final StampedLock lock = new StampedLock();
+    private final IdTable uuids = new IdTable();
+    private final Map<String, Integer> otherIds = new HashMap<>();
+    private final Map<Integer, String> otherIdsByRow = new HashMap<>();
+    private final StoreListeners<T> listeners = new StoreListeners<>();
+    private byte[] states = new byte[0];
+    private long[] mostSignificant = new long[0];
+    private long[] leastSignificant = new long[0];
+    private int rowCount;
+    private int[] freeRows = new int[0];
+    private int freeCount;
+    private volatile int live;
+    private volatile StoreMetrics metrics;
+
+    public OffHeapStore(RowLayout<T> layout) {
+        this.layout = layout;
+        this.columns = layout.newColumns();
+        grow(INITIAL_CAPACITY);
+    }
+
+    @Override
+    public void addListener(StoreListener<T> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void batch(Runnable writes) {
+        listeners.batch(writes);
+    }
+
+    @Override
+    public void bindMetrics(MeterRegistry registry, String name) {
+        metrics = new StoreMetrics(registry, name, this::size);
+    }
+
+    @Override
+    public T put(String id, T value, BiConsumer<? super T, ? super T> replacing) {
+        long start = System.nanoTime();
+        long stamp = writeLock(start);
+        try {
+            write(id, value, replacing);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        afterWrite();
+        record(StoreMetrics.WRITE, start);
+        return value;
+    }
+
+    /**
+     * Inserts a batch of values under one acquisition of the write lock. New ids fill freed
+     * rows first, then take consecutive rows.
+     */
+    @Override
+    public void putAll(Collection<? extends T> values, Function<? super T, String> idOf,
+                       BiConsumer<? super T, ? super T> replacing) {
+        long start = System.nanoTime();
+        long stamp = writeLock(start);
+        try {
+            ensureCapacity(rowCount + values.size());
+            for (T value : values) {
+                write(idOf.apply(value), value, replacing);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        afterWrite();
+        record(StoreMetrics.BATCH_WRITE, start);
+    }
+
+    @Override
+    public T get(String id) {
+        if (id == null) {
+            return null;
+        }
+        listeners.checkAvailable();
+        long start = System.nanoTime();
+        T value = EntityId.isCanonical(id)
+                ? getUuid(EntityId.highBits(id), EntityId.lowBits(id))
+                : getOther(id);
+        record(StoreMetrics.READ, start);
+        return value;
+    }
+
+    private T getUuid(long msb, long lsb) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                int row = uuids.find(msb, lsb);
+                T value = row == IdTable.ABSENT ? null : decode(row);
+                if (lock.validate(stamp)) {
+                    return value;
+                }
+            } catch (RuntimeException e) {
+                // Read arrays that a concurrent write was replacing; retried under the lock
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            int row = uuids.find(msb, lsb);
+            return row == IdTable.ABSENT ? null : decode(row);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private T getOther(String id) {
+        long stamp = lock.readLock();
+        try {
+            Integer row = otherIds.get(id);
+            return row == null ? null : decode(row);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public T update(String id, UnaryOperator<T> update) {
+        if (id == null) {
+            return null;
+        }
+        long start = System.nanoTime();
+        T value;
+        long stamp = writeLock(start);
+        try {
+            int row = rowOf(id);
+            if (row == IdTable.ABSENT) {
+                value = null;
+            } else {
+                T previous = decode(row);
+                value = update.apply(previous);
+                write(id, row, previous, value);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        afterWrite();
+        record(StoreMetrics.WRITE, start);
+        return value;
+    }
+
+    @Override
+    public void remove(String id) {
+        if (id == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        long stamp = writeLock(start);
+        try {
+            int row = rowOf(id);
+            if (row != IdTable.ABSENT) {
+                T previous = decode(row);
+                unregister(id, row);
+                try {
+                    listeners.onRemove(id, previous);
+                } catch (RuntimeException e) {
+                    register(id, row);
+                    throw e;
+                }
+                free(row);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        afterWrite();
+        record(StoreMetrics.WRITE, start);
+    }
+
+    /**
+     * Writes {@code value} to the row of {@code id}, or to a new row for a new id, and tells
+     * the listeners. Runs under the write lock. If a column cannot hold the value or a
+     * listener rejects the write, the row is restored before rethrowing.
+     */
+    private void write(String id, T value, BiConsumer<? super T, ? super T> replacing) {
+        int row = rowOf(id);
+        T previous = row == IdTable.ABSENT ? null : decode(row);
+        if (previous != null && replacing != null) {
+            replacing.accept(previous, value);
+        }
+        write(id, row, previous, value);
+    }
+
+    private void write(String id, int row, T previous, T value) {
+        if (previous == null) {
+            if (freeCount > 0) {
+                row = freeRows[--freeCount];
+            } else {
+                ensureCapacity(rowCount + 1);
+                row = rowCount++;
+            }
+            register(id, row);
+        }
+        try {
+            writeColumns(row, value);
+            listeners.onPut(id, previous, value);
+        } catch (RuntimeException e) {
+            if (previous == null) {
+                unregister(id, row);
+                free(row);
+            } else {
+                writeColumns(row, previous);
+            }
+            throw e;
+        }
+    }
+
+    private void writeColumns(int row, T value) {
+        for (Column<T> column : columns) {
+            column.write(row, value);
+        }
+    }
+
+    private T decode(int row) {
+        String id = states[row] == OTHER_ID
+                ? otherIdsByRow.get(row)
+                : new EntityId(mostSignificant[row], leastSignificant[row]).toString();
+        T value = layout.newValue(id);
+        for (Column<T> column : columns) {
+            column.read(row, value);
+        }
+        return value;
+    }
+
+    private int rowOf(String id) {
+        if (EntityId.isCanonical(id)) {
+            return uuids.find(EntityId.highBits(id), EntityId.lowBits(id));
+        }
+        Integer row = otherIds.get(id);
+        return row == null ? IdTable.ABSENT : row;
+    }
+
+    private void register(String id, int row) {
+        if (EntityId.isCanonical(id)) {
+            mostSignificant[row] = EntityId.highBits(id);
+            leastSignificant[row] = EntityId.lowBits(id);
+            uuids.insert(mostSignificant[row], leastSignificant[row], row);
+            states[row] = UUID_ID;
+        } else {
+            otherIds.put(id, row);
+            otherIdsByRow.put(row, id);
+            states[row] = OTHER_ID;
+        }
+        live++;
+    }
+
+    private void unregister(String id, int row) {
+        if (states[row] == UUID_ID) {
+            uuids.delete(mostSignificant[row], leastSignificant[row]);
+        } else {
+            otherIds.remove(id);
+            otherIdsByRow.remove(row);
+        }
+        states[row] = DEAD;
+        live--;
+    }
+
+    /**
+     * Clears a row that no longer holds an entity and puts it on the free list.
+     */
+    private void free(int row) {
+        for (Column<T> column : columns) {
+            column.clear(row);
+        }
+        if (freeCount == freeRows.length) {
+            freeRows = Arrays.copyOf(freeRows, Math.max(16, freeCount * 2));
+        }
+        freeRows[freeCount++] = row;
+    }
+
+    private void ensureCapacity(int rows) {
+        if (rows > states.length) {
+            grow(Math.max(rows, states.length * 2));
+        }
+    }
+
+    private void grow(int capacity) {
+        for (Column<T> column : columns) {
+            column.grow(capacity);
+        }
+        mostSignificant = Arrays.copyOf(mostSignificant, capacity);
+        leastSignificant = Arrays.copyOf(leastSignificant, capacity);
+        states = Arrays.copyOf(states, capacity);
+    }
+
+    /**
+     * Iterates in insertion order, decoding one row at a time under the read lock. The
+     * iterator is weakly consistent: it never throws
+     * {@link java.util.ConcurrentModificationException} while other threads write.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        listeners.checkAvailable();
+        return new Iterator<>() {
+            private int nextRow = -1;
+            private T next = advance(-1);
+
+            private T advance(int after) {
+                long stamp = lock.readLock();
+                try {
+                    for (int row = after + 1; row < rowCount; row++) {
+                        if (states[row] != DEAD) {
+                            nextRow = row;
+                            return decode(row);
+                        }
+                    }
+                    return null;
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public T next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                T current = next;
+                next = advance(nextRow);
+                return current;
+            }
+        };
+    }
+
+    @Override
+    public Page<T> page(long offset, int size) {
+        listeners.checkAvailable();
+        long start = System.nanoTime();
+        Page<T> page;
+        long stamp = lock.readLock();
+        try {
+            int row = 0;
+            for (long skipped = 0; row < rowCount && skipped < offset; row++) {
+                if (states[row] != DEAD) {
+                    skipped++;
+                }
+            }
+            page = collect(row, size);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        record(StoreMetrics.PAGE, start);
+        return page;
+    }
+
+    /**
+     * Returns the {@code size} values stored after the row encoded in {@code cursor}. Rows
+     * never move, so cursors stay valid across deletes and inserts.
+     */
+    @Override
+    public Page<T> pageAfter(String cursor, int size) {
+        listeners.checkAvailable();
+        int after = parseCursor(cursor);
+        long start = System.nanoTime();
+        Page<T> page;
+        long stamp = lock.readLock();
+        try {
+            page = collect(after + 1, size);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        record(StoreMetrics.PAGE, start);
+        return page;
+    }
+
+    private Page<T> collect(int from, int size) {
+        List<T> content = new ArrayList<>(size);
+        int lastRow = -1;
+        int row = from;
+        for (; row < rowCount && content.size() < size; row++) {
+            if (states[row] != DEAD) {
+                content.add(decode(row));
+                lastRow = row;
+            }
+        }
+        while (row < rowCount && states[row] == DEAD) {
+            row++;
+        }
+        String nextCursor = row < rowCount ? Integer.toString(lastRow) : null;
+        return new Page<>(content, nextCursor);
+    }
+
+    private static int parseCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return -1;
+        }
+        try {
+            return Math.max(Integer.parseInt(cursor), -1);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public int size() {
+        return live;
+    }
+
+    /**
+     * Bytes held outside the Java heap by the text columns, including garbage left by
+     * rewrites and deletes that has not been compacted away yet.
+     */
+    public long offHeapBytes() {
+        long stamp = lock.readLock();
+        try {
+            long bytes = 0;
+            for (Column<T> column : columns) {
+                bytes += column.offHeapBytes();
+            }
+            return bytes;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private long writeLock(long start) {
+        long stamp = lock.writeLock();
+        StoreMetrics current = metrics;
+        if (current != null) {
+            current.recordLockWait(System.nanoTime() - start);
+        }
+        return stamp;
+    }
+
+    private void record(int operation, long start) {
+        StoreMetrics current = metrics;
+        if (current != null) {
+            current.record(operation, System.nanoTime() - start);
+        }
+    }
+
+    private void afterWrite() {
+        listeners.afterWrite();
+    }
+}
@@ -0,0 +1,111 @@
+package id.ac.ui.cs.advprog.eshop.repository.offheap;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * How an {@link OffHeapStore} splits an entity into columns and puts it back together. The
+ * id is not a column: the store keeps it in its own id table.
+ */
+public final class RowLayout<T> {
+
+    private final Supplier<T> factory;
+    private final BiConsumer<T, String> idSetter;
+    private final List<Supplier<Column<T>>> columns;
+
+    private RowLayout(Supplier<T> factory, BiConsumer<T, String> idSetter, List<Supplier<Column<T>>> columns) {
+        this.factory = factory;
+        this.idSetter = idSetter;
+        this.columns = List.copyOf(columns);
+    }
+
+    public static RowLayout<Product> product() {
+        return builder(Product::new, Product::setProductId)
+                .stringField(Product::getProductName, Product::setProductName)
+                .intField(Product::getProductQuantity, Product::setProductQuantity)
+                .longField(Product::getVersion, Product::setVersion)
+                .build();
+    }
+
+    public static RowLayout<Car> car() {
+        return builder(Car::new, Car::setCarId)
+                .stringField(Car::getCarName, Car::setCarName)
+                .dictionaryField(Car::getCarColor, Car::setCarColor)
+                .intField(Car::getCarQuantity, Car::setCarQuantity)
+                .longField(Car::getVersion, Car::setVersion)
+                .build();
+    }
+
+    public static <T> Builder<T> builder(Supplier<T> factory, BiConsumer<T, String> idSetter) {
+        return new Builder<>(factory, idSetter);
+    }
+
+    T newValue(String id) {
+        T value = factory.get();
+        idSetter.accept(value, id);
+        return value;
+    }
+
+    /**
+     * Fresh, empty columns for one store.
+     */
+    List<Column<T>> newColumns() {
+        List<Column<T>> created = new ArrayList<>(columns.size());
+        for (Supplier<Column<T>> column : columns) {
+            created.add(column.get());
+        }
+        return created;
+    }
+
+    public static final class Builder<T> {
+
+        private final Supplier<T> factory;
+        private final BiConsumer<T, String> idSetter;
+        private final List<Supplier<Column<T>>> columns = new ArrayList<>();
+
+        private Builder(Supplier<T> factory, BiConsumer<T, String> idSetter) {
+            this.factory = factory;
+            this.idSetter = idSetter;
+        }
+
+        /**
+         * Free text, stored off-heap as UTF-8.
+         */
+        public Builder<T> stringField(Function<T, String> getter, BiConsumer<T, String> setter) {
+            columns.add(() -> new StringColumn<>(getter, setter));
+            return this;
+        }
+
+        /**
+         * Text drawn from a small set of values, stored as a code into a shared dictionary.
+         */
+        public Builder<T> dictionaryField(Function<T, String> getter, BiConsumer<T, String> setter) {
+            columns.add(() -> new DictionaryColumn<>(getter, setter));
+            return this;
+        }
+
+        public Builder<T> intField(ToIntFunction<T> getter, ObjIntConsumer<T> setter) {
+            columns.add(() -> new IntColumn<>(getter, setter));
+            return this;
+        }
+
+        public Builder<T> longField(ToLongFunction<T> getter, ObjLongConsumer<T> setter) {
+            columns.add(() -> new LongColumn<>(getter, setter));
+            return this;
+        }
+
+        public RowLayout<T> build() {
+            return new RowLayout<>(factory, idSetter, columns);
+        }
+    }
+}
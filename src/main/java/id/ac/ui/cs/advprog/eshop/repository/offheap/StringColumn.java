@@ -0,0 +1,170 @@
+package id.ac.ui.cs.advprog.eshop.repository.offheap;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * A free-text string field stored as UTF-8 in direct {@link ByteBuffer} segments outside the
+ * Java heap. Each row keeps one {@code long} that packs the segment, offset and length of its
+ * bytes, so the garbage collector sees a handful of buffers instead of a {@link String} and a
+ * {@code byte[]} per row.
+ *
+ * <p>Bytes are appended to the current segment. A rewrite that fits in the row's old bytes
+ * reuses them; otherwise, and on delete, the old bytes become garbage. Once garbage makes
+ * up half of the segments, the live text is copied into fresh segments and the old ones
+ * are dropped, so the column stays within about twice its live bytes under any churn.
+ * Compaction runs under the store's write lock; a racing optimistic read sees mismatched
+ * references and segments and is retried under the read lock.
+ */
+final class StringColumn<T> extends Column<T> {
+
+    static final int SEGMENT_BYTES = 1 << 20;
+
+    private static final long NULL = -1;
+    private static final int OFFSET_BITS = 21;
+    private static final int LENGTH_BITS = 21;
+    private static final long FIELD_MASK = (1L << OFFSET_BITS) - 1;
+
+    private final Function<T, String> getter;
+    private final BiConsumer<T, String> setter;
+    private ByteBuffer[] segments = new ByteBuffer[0];
+    private int segmentCount;
+    private int used = SEGMENT_BYTES;
+    private long garbageBytes;
+    private long[] references = new long[0];
+
+    StringColumn(Function<T, String> getter, BiConsumer<T, String> setter) {
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    @Override
+    void grow(int capacity) {
+        int previous = references.length;
+        references = Arrays.copyOf(references, capacity);
+        Arrays.fill(references, previous, capacity, NULL);
+    }
+
+    @Override
+    void write(int row, T value) {
+        String text = getter.apply(value);
+        long previous = references[row];
+        if (text == null) {
+            references[row] = NULL;
+            discard(previous);
+            return;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > SEGMENT_BYTES) {
+            throw new IllegalArgumentException("Text of " + bytes.length + " bytes does not fit in a segment");
+        }
+        if (previous != NULL && bytes.length <= length(previous)) {
+            segments[segment(previous)].put(offset(previous), bytes);
+            garbageBytes += length(previous) - bytes.length;
+            references[row] = pack(segment(previous), offset(previous), bytes.length);
+            compactIfWasteful();
+            return;
+        }
+        if (used + bytes.length > SEGMENT_BYTES) {
+            addSegment();
+        }
+        segments[segmentCount - 1].put(used, bytes);
+        references[row] = pack(segmentCount - 1, used, bytes.length);
+        used += bytes.length;
+        discard(previous);
+    }
+
+    /**
+     * Copies the live text of every row into fresh segments once garbage takes up at least
+     * half of the allocated segments and at least one whole segment.
+     */
+    private void compactIfWasteful() {
+        long allocated = (long) segmentCount * SEGMENT_BYTES;
+        if (garbageBytes < SEGMENT_BYTES || garbageBytes * 2 < allocated) {
+            return;
+        }
+        ByteBuffer[] old = segments;
+        long[] moved = new long[references.length];
+        segments = new ByteBuffer[0];
+        segmentCount = 0;
+        used = SEGMENT_BYTES;
+        for (int row = 0; row < references.length; row++) {
+            long reference = references[row];
+            if (reference == NULL) {
+                moved[row] = NULL;
+                continue;
+            }
+            int length = length(reference);
+            if (used + length > SEGMENT_BYTES) {
+                addSegment();
+            }
+            segments[segmentCount - 1].put(used, old[segment(reference)], offset(reference), length);
+            moved[row] = pack(segmentCount - 1, used, length);
+            used += length;
+        }
+        references = moved;
+        garbageBytes = 0;
+    }
+
+    @Override
+    void read(int row, T into) {
+        long reference = references[row];
+        if (reference == NULL) {
+            setter.accept(into, null);
+            return;
+        }
+        byte[] bytes = new byte[length(reference)];
+        segments[segment(reference)].get(offset(reference), bytes);
+        setter.accept(into, new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    void clear(int row) {
+        long previous = references[row];
+        references[row] = NULL;
+        discard(previous);
+    }
+
+    @Override
+    long offHeapBytes() {
+        return (long) segmentCount * SEGMENT_BYTES;
+    }
+
+    long garbageBytes() {
+        return garbageBytes;
+    }
+
+    private void discard(long reference) {
+        if (reference != NULL) {
+            garbageBytes += length(reference);
+            compactIfWasteful();
+        }
+    }
+
+    private void addSegment() {
+        if (segmentCount == segments.length) {
+            segments = Arrays.copyOf(segments, Math.max(4, segmentCount * 2));
+        }
+        segments[segmentCount++] = ByteBuffer.allocateDirect(SEGMENT_BYTES);
+        used = 0;
+    }
+
+    private static long pack(int segment, int offset, int length) {
+        return ((long) segment << (OFFSET_BITS + LENGTH_BITS)) | ((long) offset << LENGTH_BITS) | length;
+    }
+
+    private static int segment(long reference) {
+        return (int) (reference >>> (OFFSET_BITS + LENGTH_BITS));
+    }
+
+    private static int offset(long reference) {
+        return (int) ((reference >>> LENGTH_BITS) & FIELD_MASK);
+    }
+
+    private static int length(long reference) {
+        return (int) (reference & FIELD_MASK);
+    }
+}
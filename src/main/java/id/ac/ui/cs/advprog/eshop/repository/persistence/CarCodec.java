@@ -0,0 +1,29 @@
+package id.ac.ui.cs.advprog.eshop.repository.persistence;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class CarCodec implements EntityCodec<Car> {
+
+    @Override
+    public void write(DataOutput out, Car car) throws IOException {
+        EntityCodec.writeNullableString(out, car.getCarName());
+        EntityCodec.writeNullableString(out, car.getCarColor());
+        out.writeInt(car.getCarQuantity());
+        out.writeLong(car.getVersion());
+    }
+
+    @Override
+    public Car read(DataInput in, String id) throws IOException {
+        Car car = new Car();
+        car.setCarId(id);
+        car.setCarName(EntityCodec.readNullableString(in));
+        car.setCarColor(EntityCodec.readNullableString(in));
+        car.setCarQuantity(in.readInt());
+        car.setVersion(in.readLong());
+        return car;
+    }
+}
@@ -0,0 +1,245 @@
+package id.ac.ui.cs.advprog.eshop.repository.persistence;
+
+import id.ac.ui.cs.advprog.eshop.repository.EntityStore;
+import id.ac.ui.cs.advprog.eshop.repository.StoreListener;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Makes an {@link EntityStore} durable with a write-ahead log plus periodic snapshots.
+ *
+ * <p>Every put and remove is queued for {@code <name>-<generation>.wal} from inside the
+ * store's per-id critical section, so the log holds each id's writes in the order they were
+ * applied. The file write and fsync happen in {@link #afterWrite}, once the store has
+ * released the lock. {@link #checkpoint} switches to the next log generation, then writes a
+ * snapshot tagged with that generation and deletes the older logs. Recovery loads the
+ * snapshot and replays only the logs from its generation onwards, which bounds recovery time.
+ *
+ * <p>A snapshot may already contain some writes that are also in the newer log. Log
+ * records hold whole values, so replaying them again converges on the same state.
+ *
+ * <p>When the log fails, the write being committed is already applied in memory and cannot
+ * be taken back, so the exception from {@link #afterWrite} fails the store: it refuses every
+ * later read and write rather than serve data the log does not have. A restart recovers the
+ * state the log does hold.
+ */
+public class DurableStore<T> implements StoreListener<T>, Closeable {
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final byte END = 0;
+    private static final int SNAPSHOT_MAGIC = 0x45534E50;
+
+    private final Path directory;
+    private final String name;
+    private final EntityCodec<T> codec;
+    private final Function<T, String> idOf;
+    private final boolean fsync;
+    private final ReentrantLock checkpointLock = new ReentrantLock();
+    private WriteAheadLog log;
+    private long generation;
+
+    /**
+     * @param fsync whether every write waits for its log record to reach the disk (with
+     *              group commit) or leaves flushing to the operating system
+     */
+    public DurableStore(Path directory, String name, EntityCodec<T> codec, Function<T, String> idOf, boolean fsync) {
+        this.directory = directory;
+        this.name = name;
+        this.codec = codec;
+        this.idOf = idOf;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Loads the latest snapshot and log into {@code store}, then starts logging the store's
+     * writes. The store must not be written to until this returns.
+     */
+    public void recover(EntityStore<T> store) throws IOException {
+        Files.createDirectories(directory);
+        Path snapshot = snapshotFile();
+        generation = Files.exists(snapshot) ? readSnapshot(snapshot, store) : 0;
+        for (long logGeneration : logGenerations()) {
+            if (logGeneration < generation) {
+                // Left behind by a crash between writing a snapshot and cleaning up
+                Files.deleteIfExists(logFile(logGeneration));
+                continue;
+            }
+            try {
+                WriteAheadLog.replay(logFile(logGeneration), body -> apply(store, body));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            generation = logGeneration;
+        }
+        log = new WriteAheadLog(logFile(generation));
+        store.addListener(this);
+    }
+
+    /**
+     * Writes a snapshot of {@code store} and drops the log records it makes redundant.
+     * Writers keep going while the snapshot is written.
+     */
+    public void checkpoint(EntityStore<T> store) throws IOException {
+        checkpointLock.lock();
+        try {
+            long next = generation + 1;
+            log.rotate(logFile(next));
+            generation = next;
+            writeSnapshot(store, next);
+            for (long logGeneration : logGenerations()) {
+                if (logGeneration < next) {
+                    Files.deleteIfExists(logFile(logGeneration));
+                }
+            }
+        } finally {
+            checkpointLock.unlock();
+        }
+    }
+
+    @Override
+    public void onPut(String id, T previous, T current) {
+        append(PUT, id, current);
+    }
+
+    @Override
+    public void onRemove(String id, T previous) {
+        append(REMOVE, id, null);
+    }
+
+    @Override
+    public void afterWrite() {
+        try {
+            log.commit(fsync);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    private void append(byte operation, String id, T value) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(operation);
+            out.writeUTF(id);
+            if (value != null) {
+                codec.write(out, value);
+            }
+            log.append(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void apply(EntityStore<T> store, byte[] body) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+            byte operation = in.readByte();
+            String id = in.readUTF();
+            if (operation == PUT) {
+                store.put(id, codec.read(in, id));
+            } else {
+                store.remove(id);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeSnapshot(EntityStore<T> store, long snapshotGeneration) throws IOException {
+        Path temporary = directory.resolve(name + ".snapshot.tmp");
+        try (CheckedOutputStream checked = new CheckedOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16), new CRC32());
+             DataOutputStream out = new DataOutputStream(checked)) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(snapshotGeneration);
+            Iterator<T> values = store.iterator();
+            while (values.hasNext()) {
+                T value = values.next();
+                out.writeByte(PUT);
+                out.writeUTF(idOf.apply(value));
+                codec.write(out, value);
+            }
+            out.writeByte(END);
+            out.flush();
+            out.writeLong(checked.getChecksum().getValue());
+        }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, snapshotFile(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads the snapshot into {@code store} and returns the log generation that follows it.
+     */
+    private long readSnapshot(Path snapshot, EntityStore<T> store) throws IOException {
+        try (CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(snapshot), 1 << 16), new CRC32());
+             DataInputStream in = new DataInputStream(checked)) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a snapshot file: " + snapshot);
+            }
+            long snapshotGeneration = in.readLong();
+            while (in.readByte() == PUT) {
+                String id = in.readUTF();
+                store.put(id, codec.read(in, id));
+            }
+            long expected = checked.getChecksum().getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("Corrupt snapshot file: " + snapshot);
+            }
+            return snapshotGeneration;
+        }
+    }
+
+    private List<Long> logGenerations() throws IOException {
+        String prefix = name + "-";
+        List<Long> generations = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(file -> file.startsWith(prefix) && file.endsWith(".wal"))
+                    .forEach(file -> generations.add(
+                            Long.parseLong(file.substring(prefix.length(), file.length() - ".wal".length()))));
+        }
+        generations.sort(null);
+        return generations;
+    }
+
+    private Path logFile(long logGeneration) {
+        return directory.resolve(name + "-" + logGeneration + ".wal");
+    }
+
+    private Path snapshotFile() {
+        return directory.resolve(name + ".snapshot");
+    }
+}
@@ -0,0 +1,27 @@
+package id.ac.ui.cs.advprog.eshop.repository.persistence;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Compact binary form of an entity in the write-ahead log and in snapshots. The id is
+ * stored next to the payload, so codecs only write the remaining fields.
+ */
+public interface EntityCodec<T> {
+
+    void write(DataOutput out, T value) throws IOException;
+
+    T read(DataInput in, String id) throws IOException;
+
+    static void writeNullableString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    static String readNullableString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,27 @@
+package id.ac.ui.cs.advprog.eshop.repository.persistence;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class ProductCodec implements EntityCodec<Product> {
+
+    @Override
+    public void write(DataOutput out, Product product) throws IOException {
+        EntityCodec.writeNullableString(out, product.getProductName());
+        out.writeInt(product.getProductQuantity());
+        out.writeLong(product.getVersion());
+    }
+
+    @Override
+    public Product read(DataInput in, String id) throws IOException {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setProductName(EntityCodec.readNullableString(in));
+        product.setProductQuantity(in.readInt());
+        product.setVersion(in.readLong());
+        return product;
+    }
+}
@@ -0,0 +1,100 @@
+package id.ac.ui.cs.advprog.eshop.repository.persistence;
+
+import id.ac.ui.cs.advprog.eshop.repository.EntityStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recovers the durable repositories on start-up, checkpoints them on a schedule and closes
+ * their logs on shutdown.
+ */
+public class RepositoryPersistence implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(RepositoryPersistence.class);
+
+    private record Binding<T>(EntityStore<T> store, DurableStore<T> durableStore) {
+        void recover() throws IOException {
+            durableStore.recover(store);
+        }
+
+        void checkpoint() throws IOException {
+            durableStore.checkpoint(store);
+        }
+    }
+
+    private final List<Binding<?>> bindings = new ArrayList<>();
+    private final Duration checkpointInterval;
+    private final ThreadFactory threadFactory;
+    private ScheduledExecutorService scheduler;
+
+    public RepositoryPersistence(Duration checkpointInterval, ThreadFactory threadFactory) {
+        this.checkpointInterval = checkpointInterval;
+        this.threadFactory = threadFactory;
+    }
+
+    public <T> RepositoryPersistence register(EntityStore<T> store, DurableStore<T> durableStore) {
+        bindings.add(new Binding<>(store, durableStore));
+        return this;
+    }
+
+    /**
+     * Recovers the registered stores and schedules the checkpoints. The only parallelism is
+     * across stores, one thread each, so with two repositories recovery takes as long as the
+     * larger one. Within a store the snapshot and then each log are applied on one thread, in
+     * file order: a later record for an id must win over an earlier one, and the order new
+     * ids arrive in is the listing order.
+     */
+    public void start() throws IOException {
+        try {
+            bindings.parallelStream().forEach(binding -> {
+                try {
+                    binding.recover();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        long interval = checkpointInterval.toMillis();
+        scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        scheduler.scheduleWithFixedDelay(this::checkpoint, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public void checkpoint() {
+        for (Binding<?> binding : bindings) {
+            try {
+                binding.checkpoint();
+            } catch (IOException e) {
+                // The log still holds every write, so a failed snapshot only costs recovery time
+                log.warn("Repository checkpoint failed", e);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (Binding<?> binding : bindings) {
+            binding.durableStore().close();
+        }
+    }
+}
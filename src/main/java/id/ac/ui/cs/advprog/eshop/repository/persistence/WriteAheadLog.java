@@ -0,0 +1,221 @@
+package id.ac.ui.cs.advprog.eshop.repository.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of length-prefixed, checksummed records backed by a {@link FileChannel}.
+ *
+ * <p>{@link #append} only queues the record, so it never blocks and is safe to call while
+ * holding a lock. {@link #commit} uses group commit: whichever writer gets the write lock
+ * drains every queued record in one gather write, and a single {@code force()} covers every
+ * record written before it. Writers that arrive while a drain or force is running usually
+ * find their record already handled, so N concurrent writers cost far fewer than N writes
+ * and fsyncs.
+ *
+ * <p>Locks are {@link ReentrantLock}s rather than {@code synchronized} so a virtual thread
+ * blocked on the write or the fsync does not pin its carrier.
+ *
+ * <p>A failed write or force fails the log: the records it took off the queue belong to
+ * writers still waiting in {@link #commit}, the file may end in a partial record, and a
+ * retried fsync can report success for pages the kernel already dropped. Every later
+ * commit throws, so no writer takes a lost record for a durable one; recovery keeps the
+ * intact prefix of the file.
+ */
+public class WriteAheadLog implements Closeable {
+
+    private static final int HEADER_BYTES = Integer.BYTES * 2;
+    private static final int MAX_GATHER = 1024;
+
+    private final Queue<ByteBuffer> pending = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private FileChannel channel;
+    private long written;
+    private volatile long durable;
+    private volatile IOException failure;
+
+    /**
+     * Opens {@code file} for appending, creating it if needed. Bytes after the last complete
+     * record, left by a crash in the middle of a write, are truncated away.
+     */
+    public WriteAheadLog(Path file) throws IOException {
+        this.channel = open(file);
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        long validLength = replay(file, body -> { });
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.truncate(validLength);
+        channel.position(validLength);
+        return channel;
+    }
+
+    /**
+     * Queues one record. Records queued by one thread are written in the order queued; the
+     * record is on disk once a later {@link #commit} by the same thread returns.
+     */
+    public void append(byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + body.length);
+        record.putInt(body.length).putInt((int) crc.getValue()).put(body).flip();
+        pending.add(record);
+    }
+
+    /**
+     * Writes every queued record and, if {@code force} is set, waits until they are on disk.
+     */
+    public void commit(boolean force) throws IOException {
+        long mark = drain();
+        if (!force || durable >= mark) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (durable >= mark) {
+                // Another writer's force already covered these records
+                return;
+            }
+            long target = drain();
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                failure = e;
+                throw e;
+            }
+            durable = target;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the queued records and returns how many bytes have been written in total.
+     */
+    private long drain() throws IOException {
+        writeLock.lock();
+        try {
+            checkFailure();
+            ByteBuffer[] batch = new ByteBuffer[MAX_GATHER];
+            while (!pending.isEmpty()) {
+                int count = 0;
+                long bytes = 0;
+                ByteBuffer record;
+                while (count < MAX_GATHER && (record = pending.poll()) != null) {
+                    batch[count++] = record;
+                    bytes += record.remaining();
+                }
+                try {
+                    for (long remaining = bytes; remaining > 0; ) {
+                        remaining -= channel.write(batch, 0, count);
+                    }
+                } catch (IOException e) {
+                    failure = e;
+                    throw e;
+                }
+                written += bytes;
+            }
+            return written;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        IOException cause = failure;
+        if (cause != null) {
+            throw new IOException("Log failed on an earlier write", cause);
+        }
+    }
+
+    /**
+     * Forces the current file and continues appending to {@code next}. Records still queued
+     * go to the new file.
+     */
+    public void rotate(Path next) throws IOException {
+        syncLock.lock();
+        writeLock.lock();
+        try {
+            checkFailure();
+            channel.force(false);
+            channel.close();
+            durable = written;
+            channel = open(next);
+        } finally {
+            writeLock.unlock();
+            syncLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        syncLock.lock();
+        try {
+            drain();
+            writeLock.lock();
+            try {
+                channel.force(false);
+                durable = written;
+            } finally {
+                writeLock.unlock();
+            }
+        } finally {
+            channel.close();
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Hands the body of every intact record in {@code file} to {@code visitor}, in order,
+     * and returns the length of the intact prefix. Reading stops at the first truncated or
+     * corrupt record, which is what a crash during an append leaves behind.
+     */
+    public static long replay(Path file, Consumer<byte[]> visitor) throws IOException {
+        if (!file.toFile().exists()) {
+            return 0;
+        }
+        long validLength = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             InputStream stream = new BufferedInputStream(Channels.newInputStream(channel), 1 << 16);
+             DataInputStream in = new DataInputStream(stream)) {
+            while (true) {
+                byte[] body;
+                int checksum;
+                try {
+                    int length = in.readInt();
+                    checksum = in.readInt();
+                    if (length < 0 || length > channel.size()) {
+                        break;
+                    }
+                    body = new byte[length];
+                    in.readFully(body);
+                } catch (EOFException e) {
+                    break;
+                }
+                CRC32 crc = new CRC32();
+                crc.update(body);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                visitor.accept(body);
+                validLength += HEADER_BYTES + body.length;
+            }
+        }
+        return validLength;
+    }
+}
@@ -0,0 +1,156 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.InventoryStatistics;
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import id.ac.ui.cs.advprog.eshop.repository.ChangeLog;
+
+import java.util.List;
+
+/**
+ * Read-through cache in front of another {@link CarService}. Lookups by id are served from
+ * the cache; every write goes to the delegate first and then invalidates the id.
+ */
+public class CachingCarService implements CarService {
+
+    private final CarService delegate;
+    private final Cache<String, Car> cache;
+
+    public CachingCarService(CarService delegate, Cache<String, Car> cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public Car create(Car car) {
+        Car created = delegate.create(car);
+        cache.invalidate(created.getCarId());
+        return created;
+    }
+
+    @Override
+    public List<Car> createAll(List<Car> cars) {
+        List<Car> created = delegate.createAll(cars);
+        for (Car car : created) {
+            cache.invalidate(car.getCarId());
+        }
+        return created;
+    }
+
+    @Override
+    public List<Car> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Iterable<Car> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public Page<Car> findPage(int page, int size) {
+        return delegate.findPage(page, size);
+    }
+
+    @Override
+    public Page<Car> findPageAfter(String cursor, int size) {
+        return delegate.findPageAfter(cursor, size);
+    }
+
+    @Override
+    public Car findById(String carId) {
+        if (carId == null) {
+            return null;
+        }
+        return cache.get(carId, delegate::findById);
+    }
+
+    @Override
+    public List<Car> search(String query, int limit) {
+        return delegate.search(query, limit);
+    }
+
+    @Override
+    public List<Car> findByQuantityBetween(int min, int max) {
+        return delegate.findByQuantityBetween(min, max);
+    }
+
+    @Override
+    public List<Car> findByColor(String color) {
+        return delegate.findByColor(color);
+    }
+
+    @Override
+    public Car update(String carId, Car car) {
+        try {
+            return delegate.update(carId, car);
+        } finally {
+            cache.invalidate(carId);
+        }
+    }
+
+    @Override
+    public boolean reserve(String carId, int quantity) {
+        return delegate.reserve(carId, quantity);
+    }
+
+    @Override
+    public Car commit(String carId, int quantity) {
+        try {
+            return delegate.commit(carId, quantity);
+        } finally {
+            cache.invalidate(carId);
+        }
+    }
+
+    @Override
+    public void release(String carId, int quantity) {
+        delegate.release(carId, quantity);
+    }
+
+    @Override
+    public int availableStock(String carId) {
+        return delegate.availableStock(carId);
+    }
+
+    @Override
+    public void deleteCarById(String carId) {
+        delegate.deleteCarById(carId);
+        cache.invalidate(carId);
+    }
+
+    @Override
+    public long modificationCount() {
+        return delegate.modificationCount();
+    }
+
+    @Override
+    public long removalCount() {
+        return delegate.removalCount();
+    }
+
+    @Override
+    public long lastModified() {
+        return delegate.lastModified();
+    }
+
+    @Override
+    public ChangeLog<Car> getChangeLog() {
+        return delegate.getChangeLog();
+    }
+
+    @Override
+    public InventoryStatistics statistics() {
+        return delegate.statistics();
+    }
+
+    public CacheStats getCacheStats() {
+        return cache.stats();
+    }
+
+    public long getCacheSize() {
+        return cache.estimatedSize();
+    }
+}
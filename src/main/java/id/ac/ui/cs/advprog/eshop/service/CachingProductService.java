@@ -0,0 +1,152 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import id.ac.ui.cs.advprog.eshop.model.InventoryStatistics;
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.ChangeLog;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read-through cache in front of another {@link ProductService}. Lookups by id are served
+ * from the cache; every write goes to the delegate first and then invalidates the id.
+ */
+public class CachingProductService implements ProductService {
+
+    private final ProductService delegate;
+    private final Cache<String, Product> cache;
+
+    public CachingProductService(ProductService delegate, Cache<String, Product> cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public Product create(Product product) {
+        Product created = delegate.create(product);
+        cache.invalidate(created.getProductId());
+        return created;
+    }
+
+    @Override
+    public List<Product> createAll(List<Product> products) {
+        List<Product> created = delegate.createAll(products);
+        for (Product product : created) {
+            cache.invalidate(product.getProductId());
+        }
+        return created;
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Iterable<Product> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public Page<Product> findPage(int page, int size) {
+        return delegate.findPage(page, size);
+    }
+
+    @Override
+    public Page<Product> findPageAfter(String cursor, int size) {
+        return delegate.findPageAfter(cursor, size);
+    }
+
+    @Override
+    public Optional<Product> findById(String productId) {
+        if (productId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.get(productId, id -> delegate.findById(id).orElse(null)));
+    }
+
+    @Override
+    public List<Product> search(String query, int limit) {
+        return delegate.search(query, limit);
+    }
+
+    @Override
+    public List<Product> findByQuantityBetween(int min, int max) {
+        return delegate.findByQuantityBetween(min, max);
+    }
+
+    @Override
+    public Product update(Product product) {
+        try {
+            return delegate.update(product);
+        } finally {
+            cache.invalidate(product.getProductId());
+        }
+    }
+
+    @Override
+    public boolean reserve(String productId, int quantity) {
+        return delegate.reserve(productId, quantity);
+    }
+
+    @Override
+    public Product commit(String productId, int quantity) {
+        try {
+            return delegate.commit(productId, quantity);
+        } finally {
+            cache.invalidate(productId);
+        }
+    }
+
+    @Override
+    public void release(String productId, int quantity) {
+        delegate.release(productId, quantity);
+    }
+
+    @Override
+    public int availableStock(String productId) {
+        return delegate.availableStock(productId);
+    }
+
+    @Override
+    public void deleteById(String productId) {
+        delegate.deleteById(productId);
+        cache.invalidate(productId);
+    }
+
+    @Override
+    public long modificationCount() {
+        return delegate.modificationCount();
+    }
+
+    @Override
+    public long removalCount() {
+        return delegate.removalCount();
+    }
+
+    @Override
+    public long lastModified() {
+        return delegate.lastModified();
+    }
+
+    @Override
+    public ChangeLog<Product> getChangeLog() {
+        return delegate.getChangeLog();
+    }
+
+    @Override
+    public InventoryStatistics statistics() {
+        return delegate.statistics();
+    }
+
+    public CacheStats getCacheStats() {
+        return cache.stats();
+    }
+
+    public long getCacheSize() {
+        return cache.estimatedSize();
+    }
+}
@@ -1,12 +1,31 @@
 package id.ac.ui.cs.advprog.eshop.service;
 import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.InventoryStatistics;
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import id.ac.ui.cs.advprog.eshop.repository.ChangeLog;
 import java.util.List;
 
 public interface CarService {
     public Car create(Car car);
+    public List<Car> createAll(List<Car> cars);
     public List<Car> findAll();
+    public Iterable<Car> streamAll();
+    public Page<Car> findPage(int page, int size);
+    public Page<Car> findPageAfter(String cursor, int size);
     Car findById(String carId);
-    public void update(String carId, Car car);
+    public List<Car> search(String query, int limit);
+    public List<Car> findByQuantityBetween(int min, int max);
+    public List<Car> findByColor(String color);
+    public Car update(String carId, Car car);
+    public boolean reserve(String carId, int quantity);
+    public Car commit(String carId, int quantity);
+    public void release(String carId, int quantity);
+    public int availableStock(String carId);
     public void deleteCarById(String id);
+    public long modificationCount();
+    public long removalCount();
+    public long lastModified();
+    public ChangeLog<Car> getChangeLog();
+    public InventoryStatistics statistics();
 
 }
\ No newline at end of file
@@ -1,7 +1,12 @@
 package id.ac.ui.cs.advprog.eshop.service;
 
 import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.InventoryStatistics;
+import id.ac.ui.cs.advprog.eshop.model.Page;
 import id.ac.ui.cs.advprog.eshop.repository.CarRepository;
+import id.ac.ui.cs.advprog.eshop.repository.ChangeLog;
+import id.ac.ui.cs.advprog.eshop.repository.MutationPipeline;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -12,40 +17,264 @@ import java.util.List;
 @Service
 public class CarServiceImpl implements CarService {
 
+    private static final int CREATE = 0;
+    private static final int CREATE_ALL = 1;
+    private static final int FIND_ALL = 2;
+    private static final int FIND_PAGE = 3;
+    private static final int FIND_PAGE_AFTER = 4;
+    private static final int FIND_BY_ID = 5;
+    private static final int SEARCH = 6;
+    private static final int FIND_BY_QUANTITY = 7;
+    private static final int FIND_BY_COLOR = 8;
+    private static final int UPDATE = 9;
+    private static final int RESERVE = 10;
+    private static final int COMMIT = 11;
+    private static final int RELEASE = 12;
+    private static final int AVAILABLE_STOCK = 13;
+    private static final int DELETE = 14;
+    private static final int STATISTICS = 15;
+
+    private static final String[] METHODS = {"create", "createAll", "findAll", "findPage", "findPageAfter",
+            "findById", "search", "findByQuantityBetween", "findByColor", "update", "reserve", "commit",
+            "release", "availableStock", "deleteCarById", "statistics"};
+
     private final CarRepository carRepository;
+    private MutationPipeline<Car> pipeline;
+    private ServiceMetrics metrics;
 
     @Autowired
     public CarServiceImpl(CarRepository carRepository) {
         this.carRepository = carRepository;
     }
 
+    /**
+     * Sends creates, imports, updates, sales and deletes through {@code pipeline} instead of
+     * writing on the calling thread; set when {@code eshop.writes.pipeline.enabled=true}.
+     */
+    @Autowired(required = false)
+    public void setPipeline(MutationPipeline<Car> pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    /**
+     * Times every call that reaches the repository as {@code eshop.service}. Accessors that
+     * only read a counter or hand out a lazy view are left untimed.
+     */
+    @Autowired(required = false)
+    public void setMeterRegistry(MeterRegistry registry) {
+        this.metrics = new ServiceMetrics(registry, "car", METHODS);
+    }
+
     @Override
     public Car create(Car car) {
-        carRepository.createCar(car);
-        return car;
+        long start = System.nanoTime();
+        try {
+            if (pipeline != null) {
+                return MutationPipeline.await(pipeline.create(car));
+            }
+            carRepository.createCar(car);
+            return car;
+        } finally {
+            record(CREATE, start);
+        }
+    }
+
+    @Override
+    public List<Car> createAll(List<Car> cars) {
+        long start = System.nanoTime();
+        try {
+            if (pipeline != null) {
+                MutationPipeline.await(pipeline.createAll(cars));
+                return cars;
+            }
+            carRepository.createAll(cars);
+            return cars;
+        } finally {
+            record(CREATE_ALL, start);
+        }
     }
 
     @Override
     public List<Car> findAll() {
-        Iterator<Car> carIterator = carRepository.findAll();
-        List<Car> allCar = new ArrayList<>();
-        carIterator.forEachRemaining(allCar::add);
-        return allCar;
+        long start = System.nanoTime();
+        try {
+            Iterator<Car> carIterator = carRepository.findAll();
+            List<Car> allCar = new ArrayList<>();
+            carIterator.forEachRemaining(allCar::add);
+            return allCar;
+        } finally {
+            record(FIND_ALL, start);
+        }
+    }
+
+    @Override
+    public Iterable<Car> streamAll() {
+        return carRepository::findAll;
+    }
+
+    @Override
+    public Page<Car> findPage(int page, int size) {
+        long start = System.nanoTime();
+        try {
+            return carRepository.findPage((long) page * size, size);
+        } finally {
+            record(FIND_PAGE, start);
+        }
+    }
+
+    @Override
+    public Page<Car> findPageAfter(String cursor, int size) {
+        long start = System.nanoTime();
+        try {
+            return carRepository.findPageAfter(cursor, size);
+        } finally {
+            record(FIND_PAGE_AFTER, start);
+        }
     }
 
     @Override
     public Car findById(String carId) {
-        return carRepository.findById(carId);
+        long start = System.nanoTime();
+        try {
+            return carRepository.findById(carId).orElse(null);
+        } finally {
+            record(FIND_BY_ID, start);
+        }
+    }
+
+    @Override
+    public List<Car> search(String query, int limit) {
+        long start = System.nanoTime();
+        try {
+            return carRepository.search(query, limit);
+        } finally {
+            record(SEARCH, start);
+        }
     }
 
     @Override
-    public void update (String carId, Car car) {
-        carRepository.update(carId, car);
+    public List<Car> findByQuantityBetween(int min, int max) {
+        long start = System.nanoTime();
+        try {
+            return carRepository.findByQuantityBetween(min, max);
+        } finally {
+            record(FIND_BY_QUANTITY, start);
+        }
+    }
+
+    @Override
+    public List<Car> findByColor(String color) {
+        long start = System.nanoTime();
+        try {
+            return carRepository.findByColor(color);
+        } finally {
+            record(FIND_BY_COLOR, start);
+        }
+    }
+
+    @Override
+    public Car update(String carId, Car car) {
+        long start = System.nanoTime();
+        try {
+            if (pipeline != null) {
+                return MutationPipeline.await(pipeline.update(carId, car));
+            }
+            return carRepository.update(carId, car);
+        } finally {
+            record(UPDATE, start);
+        }
+    }
+
+    @Override
+    public boolean reserve(String carId, int quantity) {
+        long start = System.nanoTime();
+        try {
+            return carRepository.reserve(carId, quantity);
+        } finally {
+            record(RESERVE, start);
+        }
+    }
+
+    @Override
+    public Car commit(String carId, int quantity) {
+        long start = System.nanoTime();
+        try {
+            if (pipeline != null) {
+                return MutationPipeline.await(pipeline.commit(carId, quantity));
+            }
+            return carRepository.commit(carId, quantity);
+        } finally {
+            record(COMMIT, start);
+        }
+    }
+
+    @Override
+    public void release(String carId, int quantity) {
+        long start = System.nanoTime();
+        try {
+            carRepository.release(carId, quantity);
+        } finally {
+            record(RELEASE, start);
+        }
+    }
+
+    @Override
+    public int availableStock(String carId) {
+        long start = System.nanoTime();
+        try {
+            return carRepository.availableStock(carId);
+        } finally {
+            record(AVAILABLE_STOCK, start);
+        }
     }
 
     @Override
     public void deleteCarById(String carId) {
-        carRepository.delete(carId);
+        long start = System.nanoTime();
+        try {
+            if (pipeline != null) {
+                MutationPipeline.await(pipeline.delete(carId));
+                return;
+            }
+            carRepository.delete(carId);
+        } finally {
+            record(DELETE, start);
+        }
+    }
+
+    @Override
+    public long modificationCount() {
+        return carRepository.modificationCount();
     }
 
-}
\ No newline at end of file
+    @Override
+    public long removalCount() {
+        return carRepository.removalCount();
+    }
+
+    @Override
+    public long lastModified() {
+        return carRepository.lastModified();
+    }
+
+    @Override
+    public ChangeLog<Car> getChangeLog() {
+        return carRepository.getChangeLog();
+    }
+
+    @Override
+    public InventoryStatistics statistics() {
+        long start = System.nanoTime();
+        try {
+            return carRepository.statistics();
+        } finally {
+            record(STATISTICS, start);
+        }
+    }
+
+    private void record(int method, long start) {
+        if (metrics != null) {
+            metrics.record(method, System.nanoTime() - start);
+        }
+    }
+}
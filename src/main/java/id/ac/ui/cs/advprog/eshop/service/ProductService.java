@@ -1,14 +1,32 @@
 package id.ac.ui.cs.advprog.eshop.service;
 
+import id.ac.ui.cs.advprog.eshop.model.InventoryStatistics;
+import id.ac.ui.cs.advprog.eshop.model.Page;
 import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.ChangeLog;
 
 import java.util.List;
 import java.util.Optional;
 
 public interface ProductService {
     Product create(Product product);
+    List<Product> createAll(List<Product> products);
     List<Product> findAll();
+    Iterable<Product> streamAll();
+    Page<Product> findPage(int page, int size);
+    Page<Product> findPageAfter(String cursor, int size);
     Optional<Product> findById(String productId); // Add this method
+    List<Product> search(String query, int limit);
+    List<Product> findByQuantityBetween(int min, int max);
     Product update(Product product);
+    boolean reserve(String productId, int quantity);
+    Product commit(String productId, int quantity);
+    void release(String productId, int quantity);
+    int availableStock(String productId);
     void deleteById(String productId);
+    long modificationCount();
+    long removalCount();
+    long lastModified();
+    ChangeLog<Product> getChangeLog();
+    InventoryStatistics statistics();
 }
\ No newline at end of file
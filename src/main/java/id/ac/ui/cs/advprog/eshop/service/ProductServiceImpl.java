@@ -1,7 +1,12 @@
 package id.ac.ui.cs.advprog.eshop.service;
 
+import id.ac.ui.cs.advprog.eshop.model.InventoryStatistics;
+import id.ac.ui.cs.advprog.eshop.model.Page;
 import id.ac.ui.cs.advprog.eshop.model.Product;
 import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import id.ac.ui.cs.advprog.eshop.repository.ChangeLog;
+import id.ac.ui.cs.advprog.eshop.repository.MutationPipeline;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -13,42 +18,264 @@ import java.util.Optional;
 @Service
 public class ProductServiceImpl implements ProductService {
 
+    private static final int CREATE = 0;
+    private static final int CREATE_ALL = 1;
+    private static final int FIND_ALL = 2;
+    private static final int FIND_PAGE = 3;
+    private static final int FIND_PAGE_AFTER = 4;
+    private static final int FIND_BY_ID = 5;
+    private static final int SEARCH = 6;
+    private static final int FIND_BY_QUANTITY = 7;
+    private static final int UPDATE = 8;
+    private static final int RESERVE = 9;
+    private static final int COMMIT = 10;
+    private static final int RELEASE = 11;
+    private static final int AVAILABLE_STOCK = 12;
+    private static final int DELETE = 13;
+    private static final int STATISTICS = 14;
+
+    private static final String[] METHODS = {"create", "createAll", "findAll", "findPage", "findPageAfter",
+            "findById", "search", "findByQuantityBetween", "update", "reserve", "commit", "release",
+            "availableStock", "deleteById", "statistics"};
+
+    private final ProductRepository productRepository;
+    private MutationPipeline<Product> pipeline;
+    private ServiceMetrics metrics;
+
     @Autowired
-    private ProductRepository productRepository;
+    public ProductServiceImpl(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Sends creates, imports, updates, sales and deletes through {@code pipeline} instead of
+     * writing on the calling thread; set when {@code eshop.writes.pipeline.enabled=true}.
+     */
+    @Autowired(required = false)
+    public void setPipeline(MutationPipeline<Product> pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    /**
+     * Times every call that reaches the repository as {@code eshop.service}. Accessors that
+     * only read a counter or hand out a lazy view are left untimed.
+     */
+    @Autowired(required = false)
+    public void setMeterRegistry(MeterRegistry registry) {
+        this.metrics = new ServiceMetrics(registry, "product", METHODS);
+    }
 
     @Override
     public Product create(Product product) {
-        productRepository.create(product);
-        return product;
+        long start = System.nanoTime();
+        try {
+            if (pipeline != null) {
+                return MutationPipeline.await(pipeline.create(product));
+            }
+            productRepository.create(product);
+            return product;
+        } finally {
+            record(CREATE, start);
+        }
+    }
+
+    @Override
+    public List<Product> createAll(List<Product> products) {
+        long start = System.nanoTime();
+        try {
+            if (pipeline != null) {
+                MutationPipeline.await(pipeline.createAll(products));
+                return products;
+            }
+            productRepository.createAll(products);
+            return products;
+        } finally {
+            record(CREATE_ALL, start);
+        }
     }
 
     @Override
     public List<Product> findAll() {
-        Iterator<Product> productIterator = productRepository.findAll();
-        List<Product> allProduct = new ArrayList<>();
-        productIterator.forEachRemaining(allProduct::add);
-        return allProduct;
+        long start = System.nanoTime();
+        try {
+            Iterator<Product> productIterator = productRepository.findAll();
+            List<Product> allProduct = new ArrayList<>();
+            productIterator.forEachRemaining(allProduct::add);
+            return allProduct;
+        } finally {
+            record(FIND_ALL, start);
+        }
+    }
+
+    /**
+     * Lazy view over the repository: nothing is copied, and each iteration walks the
+     * repository's weakly consistent iterator while the caller consumes it.
+     */
+    @Override
+    public Iterable<Product> streamAll() {
+        return productRepository::findAll;
+    }
+
+    @Override
+    public Page<Product> findPage(int page, int size) {
+        long start = System.nanoTime();
+        try {
+            return productRepository.findPage((long) page * size, size);
+        } finally {
+            record(FIND_PAGE, start);
+        }
+    }
+
+    @Override
+    public Page<Product> findPageAfter(String cursor, int size) {
+        long start = System.nanoTime();
+        try {
+            return productRepository.findPageAfter(cursor, size);
+        } finally {
+            record(FIND_PAGE_AFTER, start);
+        }
     }
 
     @Override
     public Optional<Product> findById(String productId) {
-        return productRepository.findById(productId);
+        long start = System.nanoTime();
+        try {
+            return productRepository.findById(productId);
+        } finally {
+            record(FIND_BY_ID, start);
+        }
+    }
+
+    @Override
+    public List<Product> search(String query, int limit) {
+        long start = System.nanoTime();
+        try {
+            return productRepository.search(query, limit);
+        } finally {
+            record(SEARCH, start);
+        }
+    }
+
+    @Override
+    public List<Product> findByQuantityBetween(int min, int max) {
+        long start = System.nanoTime();
+        try {
+            return productRepository.findByQuantityBetween(min, max);
+        } finally {
+            record(FIND_BY_QUANTITY, start);
+        }
     }
 
     @Override
     public Product update(Product product) {
-        Optional<Product> existingProduct = productRepository.findById(product.getProductId());
-        if (existingProduct.isPresent()) {
-            Product updatedProduct = existingProduct.get();
-            updatedProduct.setProductName(product.getProductName());
-            updatedProduct.setProductQuantity(product.getProductQuantity());
-            return updatedProduct;
+        long start = System.nanoTime();
+        try {
+            Optional<Product> existingProduct = productRepository.findById(product.getProductId());
+            if (existingProduct.isPresent()) {
+                // Throws VersionConflictException if the product changed since product.getVersion()
+                Product updatedProduct = pipeline != null
+                        ? MutationPipeline.await(pipeline.update(product.getProductId(), product))
+                        : productRepository.update(product);
+                if (updatedProduct != null) {
+                    return updatedProduct;
+                }
+            }
+            throw new RuntimeException("Product not found with ID: " + product.getProductId());
+        } finally {
+            record(UPDATE, start);
+        }
+    }
+
+    @Override
+    public boolean reserve(String productId, int quantity) {
+        long start = System.nanoTime();
+        try {
+            return productRepository.reserve(productId, quantity);
+        } finally {
+            record(RESERVE, start);
+        }
+    }
+
+    @Override
+    public Product commit(String productId, int quantity) {
+        long start = System.nanoTime();
+        try {
+            if (pipeline != null) {
+                return MutationPipeline.await(pipeline.commit(productId, quantity));
+            }
+            return productRepository.commit(productId, quantity);
+        } finally {
+            record(COMMIT, start);
+        }
+    }
+
+    @Override
+    public void release(String productId, int quantity) {
+        long start = System.nanoTime();
+        try {
+            productRepository.release(productId, quantity);
+        } finally {
+            record(RELEASE, start);
+        }
+    }
+
+    @Override
+    public int availableStock(String productId) {
+        long start = System.nanoTime();
+        try {
+            return productRepository.availableStock(productId);
+        } finally {
+            record(AVAILABLE_STOCK, start);
         }
-        throw new RuntimeException("Product not found with ID: " + product.getProductId());
     }
 
     @Override
     public void deleteById(String productId) {
-        productRepository.deleteById(productId);
+        long start = System.nanoTime();
+        try {
+            if (pipeline != null) {
+                MutationPipeline.await(pipeline.delete(productId));
+                return;
+            }
+            productRepository.deleteById(productId);
+        } finally {
+            record(DELETE, start);
+        }
+    }
+
+    @Override
+    public long modificationCount() {
+        return productRepository.modificationCount();
+    }
+
+    @Override
+    public long removalCount() {
+        return productRepository.removalCount();
+    }
+
+    @Override
+    public long lastModified() {
+        return productRepository.lastModified();
+    }
+
+    @Override
+    public ChangeLog<Product> getChangeLog() {
+        return productRepository.getChangeLog();
+    }
+
+    @Override
+    public InventoryStatistics statistics() {
+        long start = System.nanoTime();
+        try {
+            return productRepository.statistics();
+        } finally {
+            record(STATISTICS, start);
+        }
+    }
+
+    private void record(int method, long start) {
+        if (metrics != null) {
+            metrics.record(method, System.nanoTime() - start);
+        }
     }
-}
\ No newline at end of file
+}
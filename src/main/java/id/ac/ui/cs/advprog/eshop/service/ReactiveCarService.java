@@ -0,0 +1,50 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * {@link CarService} as {@link Flux} and {@link Mono}, with the same pull-based listings and
+ * off-thread writes as {@link ReactiveProductService}.
+ */
+@Service
+public class ReactiveCarService {
+
+    private final CarService carService;
+
+    @Autowired
+    public ReactiveCarService(CarService carService) {
+        this.carService = carService;
+    }
+
+    public Flux<Car> streamAll() {
+        return Flux.fromIterable(carService.streamAll());
+    }
+
+    public Flux<Car> search(String query, int limit) {
+        return Flux.defer(() -> Flux.fromIterable(carService.search(query, limit)));
+    }
+
+    public Flux<Car> findByColor(String color) {
+        return Flux.defer(() -> Flux.fromIterable(carService.findByColor(color)));
+    }
+
+    public Mono<Car> findById(String carId) {
+        return Mono.fromSupplier(() -> carService.findById(carId));
+    }
+
+    public Mono<Car> create(Car car) {
+        return Mono.fromCallable(() -> carService.create(car))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<Void> deleteCarById(String carId) {
+        return Mono.fromRunnable(() -> carService.deleteCarById(carId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+}
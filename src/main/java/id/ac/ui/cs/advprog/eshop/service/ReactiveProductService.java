@@ -0,0 +1,49 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * {@link ProductService} as {@link Flux} and {@link Mono}. Listings are cold: each
+ * subscription walks the repository iterator and only pulls as many products as the
+ * subscriber has requested, so a slow client holds the walk back instead of making the
+ * server buffer the catalog. Writes can block on the durable log, so they run on Reactor's
+ * bounded elastic scheduler rather than on the subscribing thread.
+ */
+@Service
+public class ReactiveProductService {
+
+    private final ProductService productService;
+
+    @Autowired
+    public ReactiveProductService(ProductService productService) {
+        this.productService = productService;
+    }
+
+    public Flux<Product> streamAll() {
+        return Flux.fromIterable(productService.streamAll());
+    }
+
+    public Flux<Product> search(String query, int limit) {
+        return Flux.defer(() -> Flux.fromIterable(productService.search(query, limit)));
+    }
+
+    public Mono<Product> findById(String productId) {
+        return Mono.defer(() -> Mono.justOrEmpty(productService.findById(productId)));
+    }
+
+    public Mono<Product> create(Product product) {
+        return Mono.fromCallable(() -> productService.create(product))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<Void> deleteById(String productId) {
+        return Mono.fromRunnable(() -> productService.deleteById(productId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+}
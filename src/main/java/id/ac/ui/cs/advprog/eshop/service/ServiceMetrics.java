@@ -0,0 +1,31 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency timers of one service, one per method. Every timer is registered up front and
+ * looked up by array index, so recording a call allocates nothing.
+ */
+public class ServiceMetrics {
+
+    private final Timer[] methodTimers;
+
+    public ServiceMetrics(MeterRegistry registry, String service, String... methods) {
+        methodTimers = new Timer[methods.length];
+        for (int i = 0; i < methods.length; i++) {
+            methodTimers[i] = Timer.builder("eshop.service")
+                    .description("Latency of service calls")
+                    .tags("service", service, "method", methods[i])
+                    .publishPercentiles(0.5, 0.99)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+    }
+
+    public void record(int method, long nanos) {
+        methodTimers[method].record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
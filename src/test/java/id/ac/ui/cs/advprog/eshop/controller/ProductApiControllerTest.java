@@ -0,0 +1,212 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.VersionConflictException;
+import id.ac.ui.cs.advprog.eshop.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductApiControllerTest {
+
+    private static final String PRODUCT_ID = "eb558e9f-1c39-460e-8860-71af6af63bd6";
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private ProductService productService;
+
+    @InjectMocks
+    private ProductApiController productApiController;
+
+    private Product mockProduct;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(productApiController).build();
+        mockProduct = new Product();
+        mockProduct.setProductId(PRODUCT_ID);
+        mockProduct.setProductName("Sampo Cap Bambang");
+        mockProduct.setProductQuantity(100);
+        mockProduct.setVersion(3);
+    }
+
+    @Test
+    void testListProducts_StreamsPageWithTag() throws Exception {
+        when(productService.modificationCount()).thenReturn(7L);
+        when(productService.findPage(0, 20)).thenReturn(new Page<>(List.of(mockProduct), "0"));
+
+        MvcResult result = mockMvc.perform(get("/api/products"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, JsonApi.listTag(7)))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.content[0].productId").value(PRODUCT_ID))
+                .andExpect(jsonPath("$.content[0].productQuantity").value(100))
+                .andExpect(jsonPath("$.nextCursor").value("0"));
+    }
+
+    @Test
+    void testListProducts_NotModified() throws Exception {
+        when(productService.modificationCount()).thenReturn(7L);
+
+        mockMvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, JsonApi.listTag(7)))
+                .andExpect(status().isNotModified());
+
+        verify(productService, never()).findPage(anyInt(), anyInt());
+    }
+
+    @Test
+    void testListProducts_CountFromEarlierRunIsNotCurrent() throws Exception {
+        when(productService.modificationCount()).thenReturn(7L);
+        when(productService.findPage(0, 20)).thenReturn(new Page<>(List.of(mockProduct), "0"));
+
+        mockMvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, "\"7\""))
+                .andExpect(request().asyncStarted());
+
+        verify(productService).findPage(0, 20);
+    }
+
+    @Test
+    void testListProducts_WithCursorAndLargeSize() throws Exception {
+        when(productService.findPageAfter("41", Pagination.MAX_API_SIZE)).thenReturn(new Page<>(List.of(), null));
+
+        MvcResult result = mockMvc.perform(get("/api/products?after=41&size=100000")).andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content").isEmpty());
+    }
+
+    @Test
+    void testGetProduct() throws Exception {
+        when(productService.findById(PRODUCT_ID)).thenReturn(Optional.of(mockProduct));
+
+        mockMvc.perform(get("/api/products/" + PRODUCT_ID))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(jsonPath("$.productName").value("Sampo Cap Bambang"));
+        mockMvc.perform(get("/api/products/" + PRODUCT_ID).header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testGetProduct_NotFound() throws Exception {
+        when(productService.findById("missing")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/products/missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testCreateProduct_AssignsId() throws Exception {
+        when(productService.create(any(Product.class))).thenAnswer(invocation -> {
+            Product product = invocation.getArgument(0);
+            product.setProductId(PRODUCT_ID);
+            product.setVersion(1);
+            return product;
+        });
+
+        mockMvc.perform(post("/api/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\":\"chosen-by-client\",\"productName\":\"Sabun\",\"productQuantity\":5}"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/api/products/" + PRODUCT_ID))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.productName").value("Sabun"));
+    }
+
+    @Test
+    void testUpdateProduct_IfMatchSetsExpectedVersion() throws Exception {
+        Product updated = new Product();
+        updated.setProductId(PRODUCT_ID);
+        updated.setVersion(4);
+        when(productService.findById(PRODUCT_ID)).thenReturn(Optional.of(mockProduct));
+        when(productService.update(any(Product.class))).thenReturn(updated);
+
+        mockMvc.perform(put("/api/products/" + PRODUCT_ID)
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productName\":\"Sampo\",\"productQuantity\":99}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+
+        ArgumentCaptor<Product> captor = ArgumentCaptor.forClass(Product.class);
+        verify(productService).update(captor.capture());
+        assertEquals(PRODUCT_ID, captor.getValue().getProductId());
+        assertEquals(3, captor.getValue().getVersion());
+    }
+
+    @Test
+    void testUpdateProduct_StaleIfMatchIsPreconditionFailed() throws Exception {
+        when(productService.findById(PRODUCT_ID)).thenReturn(Optional.of(mockProduct));
+        when(productService.update(any(Product.class))).thenThrow(new VersionConflictException(PRODUCT_ID, 2, 3));
+
+        mockMvc.perform(put("/api/products/" + PRODUCT_ID)
+                        .header(HttpHeaders.IF_MATCH, "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productName\":\"Sampo\",\"productQuantity\":99}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void testUpdateProduct_WithoutVersionIsPreconditionRequired() throws Exception {
+        when(productService.findById(PRODUCT_ID)).thenReturn(Optional.of(mockProduct));
+
+        mockMvc.perform(put("/api/products/" + PRODUCT_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productName\":\"Sampo\",\"productQuantity\":99}"))
+                .andExpect(status().isPreconditionRequired());
+
+        verify(productService, never()).update(any(Product.class));
+    }
+
+    @Test
+    void testUpdateProduct_IfMatchStarIsUnconditional() throws Exception {
+        Product updated = new Product();
+        updated.setProductId(PRODUCT_ID);
+        updated.setVersion(4);
+        when(productService.findById(PRODUCT_ID)).thenReturn(Optional.of(mockProduct));
+        when(productService.update(any(Product.class))).thenReturn(updated);
+
+        mockMvc.perform(put("/api/products/" + PRODUCT_ID)
+                        .header(HttpHeaders.IF_MATCH, "*")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productName\":\"Sampo\",\"productQuantity\":99,\"version\":2}"))
+                .andExpect(status().isOk());
+
+        ArgumentCaptor<Product> captor = ArgumentCaptor.forClass(Product.class);
+        verify(productService).update(captor.capture());
+        assertEquals(0, captor.getValue().getVersion());
+    }
+
+    @Test
+    void testDeleteProduct() throws Exception {
+        mockMvc.perform(delete("/api/products/" + PRODUCT_ID))
+                .andExpect(status().isNoContent());
+
+        verify(productService).deleteById(PRODUCT_ID);
+    }
+}
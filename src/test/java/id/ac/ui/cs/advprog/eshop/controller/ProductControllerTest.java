@@ -1,6 +1,8 @@
 package id.ac.ui.cs.advprog.eshop.controller;
 
+import id.ac.ui.cs.advprog.eshop.model.Page;
 import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.VersionConflictException;
 import id.ac.ui.cs.advprog.eshop.service.ProductService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,17 +10,30 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.ui.Model;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.hamcrest.Matchers.not;
 
 @ExtendWith(MockitoExtension.class)
 class ProductControllerTest {
@@ -65,14 +80,60 @@ class ProductControllerTest {
 
     @Test
     void testProductListPage() throws Exception {
-        when(productService.findAll()).thenReturn(Collections.singletonList(mockProduct));
+        when(productService.findPage(0, 20)).thenReturn(new Page<>(Collections.singletonList(mockProduct), "0"));
 
         mockMvc.perform(get("/product/list"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("ProductList"))
-                .andExpect(model().attribute("products", Collections.singletonList(mockProduct)));
+                .andExpect(model().attribute("products", List.of(ProductRow.of(mockProduct))))
+                .andExpect(model().attribute("page", 0))
+                .andExpect(model().attribute("nextCursor", "0"));
 
-        verify(productService, times(1)).findAll();
+        verify(productService, times(1)).findPage(0, 20);
+        verify(productService, never()).findAll();
+    }
+
+    @Test
+    void testProductListPage_WithCursor() throws Exception {
+        when(productService.findPageAfter("41", 10)).thenReturn(new Page<>(Collections.singletonList(mockProduct), null));
+
+        mockMvc.perform(get("/product/list").param("after", "41").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("ProductList"))
+                .andExpect(model().attribute("products", List.of(ProductRow.of(mockProduct))))
+                .andExpect(model().attribute("size", 10))
+                .andExpect(model().attributeDoesNotExist("nextCursor"));
+
+        verify(productService, times(1)).findPageAfter("41", 10);
+    }
+
+    @Test
+    void testProductListPage_ClampsPageSize() throws Exception {
+        when(productService.findPage(0, 100)).thenReturn(new Page<>(Collections.emptyList(), null));
+
+        mockMvc.perform(get("/product/list").param("page", "-3").param("size", "5000"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("size", 100));
+
+        verify(productService, times(1)).findPage(0, 100);
+    }
+
+    @Test
+    void testProductListPage_Streaming() throws Exception {
+        Iterable<Product> products = Collections.singletonList(mockProduct);
+        when(productService.streamAll()).thenReturn(products);
+
+        Object rows = mockMvc.perform(get("/product/list").param("stream", "true"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("ProductList"))
+                .andExpect(model().attributeDoesNotExist("nextCursor"))
+                .andReturn().getModelAndView().getModel().get("products");
+        Iterator<?> iterator = ((Iterable<?>) rows).iterator();
+        assertEquals(ProductRow.of(mockProduct), iterator.next());
+        assertFalse(iterator.hasNext());
+
+        verify(productService, never()).findPage(anyInt(), anyInt());
+        verify(productService, never()).findAll();
     }
 
     @Test
@@ -87,11 +148,70 @@ class ProductControllerTest {
         verify(productService, times(1)).findById("eb558e9f-1c39-460e-8860-71af6af63bd6");
     }
 
+    @Test
+    void testProductListPage_NotModified() throws Exception {
+        when(productService.modificationCount()).thenReturn(7L);
+        when(productService.findPage(0, 20)).thenReturn(new Page<>(Collections.singletonList(mockProduct), null));
+
+        String etag = mockMvc.perform(get("/product/list"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(model().attribute(RenderedPageCache.KEY, "7?page=0&size=20&after=null"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/product/list").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        when(productService.modificationCount()).thenReturn(8L);
+        mockMvc.perform(get("/product/list").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+
+        verify(productService, times(2)).findPage(0, 20);
+    }
+
+    @Test
+    void testEditProductPage_NotModified() throws Exception {
+        mockProduct.setVersion(3);
+        when(productService.findById("eb558e9f-1c39-460e-8860-71af6af63bd6")).thenReturn(Optional.of(mockProduct));
+
+        String etag = mockMvc.perform(get("/product/edit/eb558e9f-1c39-460e-8860-71af6af63bd6"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/product/edit/eb558e9f-1c39-460e-8860-71af6af63bd6")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        mockProduct.setVersion(4);
+        mockMvc.perform(get("/product/edit/eb558e9f-1c39-460e-8860-71af6af63bd6")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(view().name("EditProduct"));
+    }
+
+    @Test
+    void testEditProductPage_RecreatedProductIsNotNotModified() throws Exception {
+        mockProduct.setVersion(1);
+        when(productService.findById("eb558e9f-1c39-460e-8860-71af6af63bd6")).thenReturn(Optional.of(mockProduct));
+        String etag = mockMvc.perform(get("/product/edit/eb558e9f-1c39-460e-8860-71af6af63bd6"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Deleted and created again: the version is back at 1 but the product is not the same
+        when(productService.removalCount()).thenReturn(1L);
+        mockProduct.setProductName("Sampo Cap Usep");
+        mockMvc.perform(get("/product/edit/eb558e9f-1c39-460e-8860-71af6af63bd6")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(view().name("EditProduct"));
+    }
+
     @Test
     void testEditProductPage_NonExistingProduct() {
         String productId = "nonExistingId";
         when(productService.findById(productId)).thenReturn(Optional.empty());
-        String viewName = productController.editProductPage(productId, model);
+        ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse());
+        String viewName = productController.editProductPage(productId, request, model);
         verify(model, never()).addAttribute(eq("product"), any());
         assertEquals("redirect:/product/list", viewName);
         verify(productService, times(1)).findById(productId);
@@ -107,6 +227,17 @@ class ProductControllerTest {
         verify(productService, times(1)).update(mockProduct);
     }
 
+    @Test
+    void testEditProductPost_StaleVersionIsConflict() throws Exception {
+        mockProduct.setVersion(1);
+        when(productService.update(mockProduct))
+                .thenThrow(new VersionConflictException(mockProduct.getProductId(), 1, 2));
+
+        mockMvc.perform(post("/product/edit")
+                        .flashAttr("product", mockProduct))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void testDeleteProduct() throws Exception {
         mockMvc.perform(get("/product/delete/eb558e9f-1c39-460e-8860-71af6af63bd6"))
@@ -115,4 +246,120 @@ class ProductControllerTest {
 
         verify(productService, times(1)).deleteById("eb558e9f-1c39-460e-8860-71af6af63bd6");
     }
-}
\ No newline at end of file
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testImportProducts_Csv() throws Exception {
+        String csv = "productId,productName,productQuantity\n"
+                + ",Sampo Cap Bambang,100\n"
+                + "a0f9de45-90b1-437d-a0bf-d0821dde9096,\"Sampo, Cap \"\"Usep\"\"\",50\n";
+
+        mockMvc.perform(post("/product/import").contentType("text/csv").content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2));
+
+        ArgumentCaptor<List<Product>> batch = ArgumentCaptor.forClass(List.class);
+        verify(productService, times(1)).createAll(batch.capture());
+        assertEquals("Sampo Cap Bambang", batch.getValue().get(0).getProductName());
+        assertNull(batch.getValue().get(0).getProductId());
+        assertEquals("Sampo, Cap \"Usep\"", batch.getValue().get(1).getProductName());
+        assertEquals(50, batch.getValue().get(1).getProductQuantity());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testImportProducts_JsonLines() throws Exception {
+        String jsonLines = "{\"productName\":\"Sampo Cap Bambang\",\"productQuantity\":100}\n"
+                + "\n"
+                + "{\"productName\":\"Sampo Cap Usep\",\"productQuantity\":50}\n";
+
+        mockMvc.perform(post("/product/import").contentType(MediaType.APPLICATION_NDJSON).content(jsonLines))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2));
+
+        ArgumentCaptor<List<Product>> batch = ArgumentCaptor.forClass(List.class);
+        verify(productService, times(1)).createAll(batch.capture());
+        assertEquals("Sampo Cap Usep", batch.getValue().get(1).getProductName());
+    }
+
+    @Test
+    void testImportProducts_RejectsMalformedCsv() throws Exception {
+        mockMvc.perform(post("/product/import").contentType("text/csv").content("name,quantity\nSampo,1\n"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/product/import").contentType("text/csv")
+                        .content("productId,productName,productQuantity\n,Sampo,many\n"))
+                .andExpect(status().isBadRequest());
+
+        verify(productService, never()).createAll(any());
+    }
+
+    @Test
+    void testImportProducts_BadLineAfterFullBatchStoresNothing() throws Exception {
+        StringBuilder csv = new StringBuilder("productId,productName,productQuantity\n");
+        for (int i = 0; i < BulkTransfer.BATCH_SIZE; i++) {
+            csv.append(",Sampo Cap Bambang,").append(i).append('\n');
+        }
+        csv.append(",Sampo Cap Usep,many\n");
+
+        mockMvc.perform(post("/product/import").contentType("text/csv").content(csv.toString()))
+                .andExpect(status().isBadRequest());
+
+        verify(productService, never()).createAll(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExportThenImport_KeepsLineBreaksInFields() throws Exception {
+        mockProduct.setProductName("Sampo Cap Bambang\nisi ulang, \"hemat\"");
+        when(productService.streamAll()).thenReturn(Collections.singletonList(mockProduct));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        productController.exportProducts("csv").getBody().writeTo(out);
+
+        mockMvc.perform(post("/product/import").contentType("text/csv").content(out.toByteArray()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1));
+
+        ArgumentCaptor<List<Product>> batch = ArgumentCaptor.forClass(List.class);
+        verify(productService, times(1)).createAll(batch.capture());
+        Product imported = batch.getValue().get(0);
+        assertEquals(mockProduct.getProductId(), imported.getProductId());
+        assertEquals("Sampo Cap Bambang\nisi ulang, \"hemat\"", imported.getProductName());
+        assertEquals(100, imported.getProductQuantity());
+    }
+
+    @Test
+    void testImportProducts_RejectsUnterminatedQuote() throws Exception {
+        mockMvc.perform(post("/product/import").contentType("text/csv")
+                        .content("productId,productName,productQuantity\n,\"Sampo\n,1\n"))
+                .andExpect(status().isBadRequest());
+
+        verify(productService, never()).createAll(any());
+    }
+
+    @Test
+    void testSearchProducts() throws Exception {
+        when(productService.search("sampo", 100)).thenReturn(List.of(mockProduct));
+
+        mockMvc.perform(get("/product/search").param("q", "sampo").param("limit", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].productName").value("Sampo Cap Bambang"));
+    }
+
+    @Test
+    void testExportProducts() throws Exception {
+        when(productService.streamAll()).thenReturn(Collections.singletonList(mockProduct));
+
+        ResponseEntity<StreamingResponseBody> response = productController.exportProducts("csv");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        assertEquals("productId,productName,productQuantity\n"
+                + "eb558e9f-1c39-460e-8860-71af6af63bd6,Sampo Cap Bambang,100\n", out.toString(StandardCharsets.UTF_8));
+
+        response = productController.exportProducts("jsonl");
+        out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("\"productName\":\"Sampo Cap Bambang\""));
+    }
+}
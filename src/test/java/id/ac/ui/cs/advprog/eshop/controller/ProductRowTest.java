@@ -0,0 +1,45 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductRowTest {
+
+    @Test
+    void testEscapesTextAndEncodesLinks() {
+        Product product = new Product();
+        product.setProductId("a/b c");
+        product.setProductName("<b>Sampo</b> & \"Sabun\"");
+        product.setProductQuantity(7);
+
+        ProductRow row = ProductRow.of(product);
+        assertEquals("&lt;b&gt;Sampo&lt;/b&gt; &amp; &quot;Sabun&quot;", row.productName());
+        assertEquals("7", row.productQuantity());
+        assertEquals("edit/a%2Fb%20c", row.editHref());
+        assertEquals("delete/a%2Fb%20c", row.deleteHref());
+    }
+
+    @Test
+    void testNullNameStaysEmpty() {
+        Product product = new Product();
+        product.setProductId("eb558e9f-1c39-460e-8860-71af6af63bd6");
+
+        assertNull(ProductRow.of(product).productName());
+    }
+
+    @Test
+    void testReusesRowOfSameSnapshot() {
+        Product product = new Product();
+        product.setProductId("eb558e9f-1c39-460e-8860-71af6af63bd6");
+        product.setProductName("Sampo & Sabun");
+
+        Product updated = new Product();
+        updated.setProductId(product.getProductId());
+        updated.setProductName("Sampo & Sikat");
+
+        assertSame(ProductRow.of(product), ProductRow.of(product));
+        assertEquals("Sampo &amp; Sikat", ProductRow.of(updated).productName());
+    }
+}
@@ -0,0 +1,73 @@
+package id.ac.ui.cs.advprog.eshop.controller;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.View;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RenderedPageCacheTest {
+
+    AtomicInteger renders;
+    RenderedPageCache pageCache;
+
+    @BeforeEach
+    void setUp() {
+        renders = new AtomicInteger();
+        View template = new View() {
+            @Override
+            public String getContentType() {
+                return "text/html;charset=UTF-8";
+            }
+
+            @Override
+            public void render(Map<String, ?> model, HttpServletRequest request, HttpServletResponse response)
+                    throws Exception {
+                renders.incrementAndGet();
+                response.setContentType(getContentType());
+                response.getWriter().write("<p>" + model.get("products") + "</p>");
+                response.getWriter().flush();
+            }
+        };
+        pageCache = new RenderedPageCache((viewName, locale) -> template, 0, Caffeine.newBuilder().build());
+    }
+
+    private String render(Map<String, ?> model) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        pageCache.resolveViewName("ProductList", Locale.ROOT).render(model, new MockHttpServletRequest(), response);
+        assertEquals("text/html;charset=UTF-8", response.getContentType());
+        return response.getContentAsString();
+    }
+
+    @Test
+    void testSameKeyRendersOnce() throws Exception {
+        assertEquals("<p>first</p>", render(Map.of("products", "first", RenderedPageCache.KEY, "1")));
+        assertEquals("<p>first</p>", render(Map.of("products", "changed", RenderedPageCache.KEY, "1")));
+        assertEquals(1, renders.get());
+
+        assertEquals("<p>changed</p>", render(Map.of("products", "changed", RenderedPageCache.KEY, "2")));
+        assertEquals(2, renders.get());
+    }
+
+    @Test
+    void testPagesWithoutKeyAreNotCached() throws Exception {
+        assertEquals("<p>first</p>", render(Map.of("products", "first")));
+        assertEquals("<p>second</p>", render(Map.of("products", "second")));
+        assertEquals(2, renders.get());
+    }
+
+    @Test
+    void testRedirectsGoToTheTemplateResolver() throws Exception {
+        assertNull(pageCache.resolveViewName("redirect:list", Locale.ROOT));
+        assertNull(pageCache.resolveViewName("forward:list", Locale.ROOT));
+    }
+}
@@ -0,0 +1,334 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.InventoryStatistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CarRepositoryTest {
+
+    private static final int THREADS = 8;
+    private static final int UPDATES_PER_THREAD = 5_000;
+
+    CarRepository carRepository;
+
+    @BeforeEach
+    void setUp() {
+        carRepository = new CarRepository();
+    }
+
+    private Car createCar(String name, String color, int quantity) {
+        Car car = new Car();
+        car.setCarName(name);
+        car.setCarColor(color);
+        car.setCarQuantity(quantity);
+        return carRepository.createCar(car);
+    }
+
+    @Test
+    void testCreateAndFind() {
+        Car car = createCar("Toyota Supra", "Red", 5);
+
+        assertNotNull(car.getCarId());
+        assertSame(car, carRepository.findById(car.getCarId()).orElseThrow());
+
+        Iterator<Car> carIterator = carRepository.findAll();
+        assertSame(car, carIterator.next());
+        assertFalse(carIterator.hasNext());
+    }
+
+    @Test
+    void testFindById_NotFound() {
+        assertTrue(carRepository.findById("non-existent-id").isEmpty());
+        assertTrue(carRepository.findById(null).isEmpty());
+        assertTrue(carRepository.findById("").isEmpty());
+    }
+
+    @Test
+    void testCreateCar_GeneratesIdWhenEmpty() {
+        Car car = new Car();
+        car.setCarId("");
+        car.setCarName("Toyota Supra");
+        carRepository.createCar(car);
+
+        assertFalse(car.getCarId().isEmpty());
+        assertSame(car, carRepository.findById(car.getCarId()).orElseThrow());
+    }
+
+    @Test
+    void testUpdate_SwapsInNewSnapshot() {
+        Car car = createCar("Toyota Supra", "Red", 5);
+
+        Car updatedCar = new Car();
+        updatedCar.setCarName("Honda Civic");
+        updatedCar.setCarColor("Blue");
+        updatedCar.setCarQuantity(3);
+        Car result = carRepository.update(car.getCarId(), updatedCar);
+
+        assertEquals(car.getCarId(), result.getCarId());
+        assertEquals("Honda Civic", result.getCarName());
+        assertEquals("Blue", result.getCarColor());
+        assertEquals(3, result.getCarQuantity());
+        assertSame(result, carRepository.findById(car.getCarId()).orElseThrow());
+
+        // The previous snapshot handed out to readers is left untouched
+        assertEquals("Toyota Supra", car.getCarName());
+        assertEquals("Red", car.getCarColor());
+        assertEquals(5, car.getCarQuantity());
+    }
+
+    @Test
+    void testUpdate_RejectsStaleVersion() {
+        Car car = createCar("Toyota Supra", "Red", 5);
+        Car firstEdit = new Car();
+        firstEdit.setCarName("Toyota Supra");
+        firstEdit.setCarColor("Blue");
+        firstEdit.setVersion(car.getVersion());
+        Car updated = carRepository.update(car.getCarId(), firstEdit);
+        assertEquals(car.getVersion() + 1, updated.getVersion());
+
+        Car staleEdit = new Car();
+        staleEdit.setCarName("Toyota Supra");
+        staleEdit.setCarColor("Green");
+        staleEdit.setVersion(car.getVersion());
+        assertThrows(VersionConflictException.class, () -> carRepository.update(car.getCarId(), staleEdit));
+        assertSame(updated, carRepository.findById(car.getCarId()).orElseThrow());
+    }
+
+    @Test
+    void testReserveCommitRelease() {
+        Car car = createCar("Toyota Supra", "Red", 3);
+
+        assertTrue(carRepository.reserve(car.getCarId(), 2));
+        assertFalse(carRepository.reserve(car.getCarId(), 2));
+        carRepository.release(car.getCarId(), 1);
+        assertEquals(2, carRepository.commit(car.getCarId(), 1).getCarQuantity());
+        assertEquals(2, carRepository.availableStock(car.getCarId()));
+        assertEquals(List.of(carRepository.findById(car.getCarId()).orElseThrow()), carRepository.findByQuantityBetween(2, 2));
+    }
+
+    @Test
+    void testUpdate_NotFound() {
+        assertNull(carRepository.update("non-existent-id", new Car()));
+    }
+
+    @Test
+    void testSearch_ByNameAndColor() {
+        Car supra = createCar("Toyota Supra", "Red", 5);
+        createCar("Toyota Avanza", "Silver", 2);
+        createCar("Honda Civic", "Red", 1);
+
+        assertEquals(2, carRepository.search("toy", 10).size());
+        assertEquals(2, carRepository.search("red", 10).size());
+        assertEquals(List.of(supra), carRepository.search("toyota r", 10));
+
+        Car repainted = new Car();
+        repainted.setCarName("Toyota Supra");
+        repainted.setCarColor("Blue");
+        carRepository.update(supra.getCarId(), repainted);
+        assertEquals(1, carRepository.search("red", 10).size());
+        assertEquals("Blue", carRepository.search("blue", 10).get(0).getCarColor());
+    }
+
+    @Test
+    void testFindByQuantityBetween_And_FindByColor() {
+        Car supra = createCar("Toyota Supra", "Red", 5);
+        Car avanza = createCar("Toyota Avanza", "Silver", 2);
+        Car civic = createCar("Honda Civic", "red", 12);
+
+        assertEquals(List.of(avanza, supra), carRepository.findByQuantityBetween(0, 10));
+        assertEquals(List.of(civic), carRepository.findByQuantityBetween(11, Integer.MAX_VALUE));
+        assertTrue(carRepository.findByQuantityBetween(10, 0).isEmpty());
+        assertEquals(2, carRepository.findByColor("RED").size());
+        assertTrue(carRepository.findByColor("Blue").isEmpty());
+
+        Car repainted = new Car();
+        repainted.setCarName("Toyota Supra");
+        repainted.setCarColor("Blue");
+        repainted.setCarQuantity(20);
+        carRepository.update(supra.getCarId(), repainted);
+        carRepository.delete(avanza.getCarId());
+
+        assertEquals(List.of("Honda Civic"),
+                carRepository.findByColor("red").stream().map(Car::getCarName).toList());
+        assertEquals(20, carRepository.findByColor("blue").get(0).getCarQuantity());
+        assertTrue(carRepository.findByQuantityBetween(0, 10).isEmpty());
+        assertEquals(2, carRepository.findByQuantityBetween(12, 20).size());
+    }
+
+    @Test
+    void testStatistics_FollowWrites() {
+        InventoryStatistics empty = carRepository.statistics();
+        assertEquals(0, empty.getCount());
+        assertNull(empty.getMinQuantity());
+        assertTrue(empty.getCountsByColor().isEmpty());
+
+        Car supra = createCar("Toyota Supra", "Red", 5);
+        Car avanza = createCar("Toyota Avanza", "Silver", 2);
+        createCar("Honda Civic", "red", 12);
+        Car repainted = new Car();
+        repainted.setCarName("Toyota Supra");
+        repainted.setCarColor("Blue");
+        repainted.setCarQuantity(20);
+        carRepository.update(supra.getCarId(), repainted);
+        carRepository.delete(avanza.getCarId());
+
+        InventoryStatistics statistics = carRepository.statistics();
+        assertEquals(2, statistics.getCount());
+        assertEquals(32, statistics.getTotalQuantity());
+        assertEquals(12, statistics.getMinQuantity().intValue());
+        assertEquals(20, statistics.getMaxQuantity().intValue());
+        assertEquals(Map.of("red", 1L, "blue", 1L), statistics.getCountsByColor());
+    }
+
+    @Test
+    void testConcurrentUpdates_KeepIndexesConsistent() throws Exception {
+        List<Car> cars = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            cars.add(createCar("Car " + i, "Red", 0));
+        }
+        String[] colors = {"Red", "Blue", "Black"};
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < UPDATES_PER_THREAD; i++) {
+                        Car car = cars.get(i % cars.size());
+                        Car updated = new Car();
+                        updated.setCarName(car.getCarName());
+                        updated.setCarColor(colors[i % colors.length]);
+                        updated.setCarQuantity(i % 50);
+                        carRepository.update(car.getCarId(), updated);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Every car is indexed exactly once, under its current quantity and color
+        assertEquals(cars.size(), carRepository.findByQuantityBetween(Integer.MIN_VALUE, Integer.MAX_VALUE).size());
+        int colored = 0;
+        for (String color : colors) {
+            for (Car car : carRepository.findByColor(color)) {
+                assertEquals(color, carRepository.findById(car.getCarId()).orElseThrow().getCarColor());
+                colored++;
+            }
+        }
+        assertEquals(cars.size(), colored);
+    }
+
+    @Test
+    void testDelete() {
+        Car car = createCar("Toyota Supra", "Red", 5);
+        carRepository.delete(car.getCarId());
+
+        assertTrue(carRepository.findById(car.getCarId()).isEmpty());
+        assertFalse(carRepository.findAll().hasNext());
+    }
+
+    @Test
+    void testConcurrentUpdates_NoTornReads() throws Exception {
+        Car car = createCar("car-0", "color-0", 0);
+        String carId = car.getCarId();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 2);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < UPDATES_PER_THREAD; i++) {
+                        int value = thread * UPDATES_PER_THREAD + i;
+                        Car update = new Car();
+                        update.setCarName("car-" + value);
+                        update.setCarColor("color-" + value);
+                        update.setCarQuantity(value);
+                        carRepository.update(carId, update);
+                    }
+                    return null;
+                }));
+            }
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < 2; r++) {
+                readers.add(executor.submit(() -> {
+                    start.await();
+                    while (writing.get()) {
+                        // Every field of a snapshot must come from the same update
+                        Car seen = carRepository.findById(carId).orElseThrow();
+                        int value = seen.getCarQuantity();
+                        assertEquals("car-" + value, seen.getCarName());
+                        assertEquals("color-" + value, seen.getCarColor());
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            for (Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testConcurrentReadModifyWrite_NoLostUpdates() throws Exception {
+        IndexedStore<Car> store = new IndexedStore<>();
+        Car car = new Car();
+        car.setCarId("car");
+        store.put("car", car);
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < UPDATES_PER_THREAD; i++) {
+                        store.update("car", existing -> {
+                            Car next = new Car();
+                            next.setCarId(existing.getCarId());
+                            next.setCarQuantity(existing.getCarQuantity() + 1);
+                            return next;
+                        });
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(THREADS * UPDATES_PER_THREAD, store.get("car").getCarQuantity());
+    }
+}
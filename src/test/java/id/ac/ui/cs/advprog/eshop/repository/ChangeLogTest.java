@@ -0,0 +1,215 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeLogTest {
+
+    IndexedStore<Product> store;
+    ChangeLog<Product> changes;
+
+    @BeforeEach
+    void setUp() {
+        store = new IndexedStore<>();
+        changes = new ChangeLog<>(store, 8);
+    }
+
+    private Product put(String id, int quantity) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setProductName("Product " + id);
+        product.setProductQuantity(quantity);
+        return store.put(id, product);
+    }
+
+    @Test
+    void testCreateUpdateDeleteInOrder() {
+        put("a", 1);
+        put("a", 2);
+        store.remove("a");
+        store.remove("a");
+
+        ChangeLog.Batch<Product> batch = changes.readAfter(0, 10);
+        assertEquals(3, batch.events().size());
+        assertEquals(List.of(ChangeEvent.Type.CREATE, ChangeEvent.Type.UPDATE, ChangeEvent.Type.DELETE),
+                batch.events().stream().map(ChangeEvent::type).toList());
+        assertEquals(List.of(1L, 2L, 3L), batch.events().stream().map(ChangeEvent::sequence).toList());
+        assertEquals(2, batch.events().get(1).value().getProductQuantity());
+        assertNull(batch.events().get(2).value());
+        assertEquals(0, batch.missed());
+        assertEquals(3, batch.lastSequence());
+        assertEquals(3, changes.lastSequence());
+    }
+
+    @Test
+    void testResumeFromSequence() {
+        for (int i = 0; i < 5; i++) {
+            put("p" + i, i);
+        }
+
+        ChangeLog.Batch<Product> first = changes.readAfter(0, 2);
+        assertEquals(List.of("p0", "p1"), first.events().stream().map(ChangeEvent::id).toList());
+        ChangeLog.Batch<Product> rest = changes.readAfter(first.lastSequence(), 10);
+        assertEquals(List.of("p2", "p3", "p4"), rest.events().stream().map(ChangeEvent::id).toList());
+
+        ChangeLog.Batch<Product> caughtUp = changes.readAfter(rest.lastSequence(), 10);
+        assertTrue(caughtUp.events().isEmpty());
+        assertEquals(5, caughtUp.lastSequence());
+    }
+
+    @Test
+    void testLappedReaderIsToldWhatItMissed() {
+        for (int i = 0; i < 20; i++) {
+            put("p" + i, i);
+        }
+
+        ChangeLog.Batch<Product> batch = changes.readAfter(0, 100);
+        assertEquals(12, batch.missed());
+        assertEquals(8, batch.events().size());
+        assertEquals(13, batch.events().get(0).sequence());
+        assertEquals(20, batch.lastSequence());
+    }
+
+    @Test
+    void testRejectedWriteIsNotLogged() {
+        put("a", 1);
+        assertThrows(VersionConflictException.class, () -> store.update("a", existing -> {
+            throw new VersionConflictException("a", 0, 1);
+        }));
+
+        assertEquals(1, changes.lastSequence());
+    }
+
+    @Test
+    void testAwaitWakesOnWrite() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<ChangeLog.Batch<Product>> waiting =
+                    executor.submit(() -> changes.awaitAfter(0, 10, Duration.ofSeconds(10)));
+            Thread.sleep(50);
+            put("a", 1);
+
+            assertEquals("a", waiting.get(5, TimeUnit.SECONDS).events().get(0).id());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(changes.awaitAfter(1, 10, Duration.ofMillis(10)).events().isEmpty());
+    }
+
+    @Test
+    void testSlowSubscriberDoesNotBlockWriters() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingQueue<Object> received = new LinkedBlockingQueue<>();
+        ChangeLog.Subscription subscription = changes.subscribe(0, new ChangeListener<>() {
+            @Override
+            public void onChange(ChangeEvent<Product> event) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                received.add(event.sequence());
+            }
+
+            @Override
+            public void onMissed(long count) {
+                received.add("missed " + count);
+            }
+        });
+        try {
+            put("first", 0);
+            Thread.sleep(50);
+            // The subscriber is stuck on the first event while the ring wraps twice
+            for (int i = 0; i < 16; i++) {
+                put("p" + i, i);
+            }
+            release.countDown();
+
+            assertEquals(1L, received.poll(5, TimeUnit.SECONDS));
+            assertEquals("missed 8", received.poll(5, TimeUnit.SECONDS));
+            for (long sequence = 10; sequence <= 17; sequence++) {
+                assertEquals(sequence, received.poll(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            subscription.close();
+        }
+    }
+
+    @Test
+    void testResumeFromSequenceOfEarlierRun_Resets() throws Exception {
+        put("a", 1);
+        put("b", 2);
+        BlockingQueue<Object> received = new LinkedBlockingQueue<>();
+        ChangeLog.Subscription subscription = changes.subscribe(1_000, new ChangeListener<>() {
+            @Override
+            public void onChange(ChangeEvent<Product> event) {
+                received.add(event.sequence());
+            }
+
+            @Override
+            public void onMissed(long count) {
+                received.add("missed " + count);
+            }
+        });
+        try {
+            assertEquals("missed 2", received.poll(5, TimeUnit.SECONDS));
+            put("c", 3);
+            assertEquals(3L, received.poll(5, TimeUnit.SECONDS));
+        } finally {
+            subscription.close();
+        }
+    }
+
+    @Test
+    void testConcurrentWritersKeepPerIdOrder() throws Exception {
+        ChangeLog<Product> large = new ChangeLog<>(store, 1 << 16);
+        int threads = 4;
+        int writes = 5_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                writers.add(executor.submit(() -> {
+                    for (int i = 1; i <= writes; i++) {
+                        put("p" + (i % 10), i);
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        ChangeLog.Batch<Product> batch = large.readAfter(0, Integer.MAX_VALUE);
+        assertEquals(threads * writes, batch.events().size());
+        assertEquals(0, batch.missed());
+        Map<String, Integer> creates = new HashMap<>();
+        for (int i = 0; i < batch.events().size(); i++) {
+            ChangeEvent<Product> event = batch.events().get(i);
+            assertEquals(i + 1, event.sequence());
+            if (event.type() == ChangeEvent.Type.CREATE) {
+                creates.merge(event.id(), 1, Integer::sum);
+            }
+        }
+        assertEquals(10, creates.size());
+        assertTrue(creates.values().stream().allMatch(count -> count == 1));
+    }
+}
@@ -0,0 +1,85 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityIdTest {
+
+    @Test
+    void testParse_MatchesUuid() {
+        for (int i = 0; i < 1_000; i++) {
+            UUID uuid = UUID.randomUUID();
+            EntityId id = EntityId.parse(uuid.toString());
+
+            assertEquals(uuid.getMostSignificantBits(), id.high());
+            assertEquals(uuid.getLeastSignificantBits(), id.low());
+            assertEquals(uuid.toString(), id.toString());
+        }
+    }
+
+    @Test
+    void testParse_RejectsNonCanonicalIds() {
+        String uuid = UUID.randomUUID().toString();
+
+        assertNull(EntityId.parse(null));
+        assertNull(EntityId.parse("non-existent-id"));
+        assertNull(EntityId.parse(uuid.toUpperCase()));
+        assertNull(EntityId.parse(uuid.replace("-", "")));
+        assertNull(EntityId.parse("1-1-1-1-1"));
+        assertNull(EntityId.parse(uuid.substring(0, 35) + "g"));
+        assertEquals("product-1", EntityId.key("product-1"));
+        assertEquals(EntityId.parse(uuid), EntityId.key(uuid));
+    }
+
+    @Test
+    void testGenerator_ProducesVersion7Ids() {
+        long before = System.currentTimeMillis();
+        Set<String> ids = new HashSet<>();
+        String previous = null;
+        for (int i = 0; i < 10_000; i++) {
+            String id = IdGenerator.next();
+            UUID uuid = UUID.fromString(id);
+
+            assertEquals(id, uuid.toString());
+            assertEquals(7, uuid.version());
+            assertEquals(2, uuid.variant());
+            long millis = uuid.getMostSignificantBits() >>> 16;
+            assertTrue(millis >= before && millis <= System.currentTimeMillis());
+            if (previous != null) {
+                // Time-ordered at millisecond granularity
+                assertTrue(id.substring(0, 13).compareTo(previous.substring(0, 13)) >= 0);
+            }
+            assertTrue(ids.add(id));
+            previous = id;
+        }
+    }
+
+    @Test
+    void testStore_KeepsStringIdsDistinct() {
+        IndexedStore<Product> store = new IndexedStore<>();
+        String lowerCase = IdGenerator.next();
+        String upperCase = lowerCase.toUpperCase();
+        Product first = new Product();
+        first.setProductId(lowerCase);
+        Product second = new Product();
+        second.setProductId(upperCase);
+
+        store.put(lowerCase, first);
+        store.put(upperCase, second);
+        store.put("product-1", new Product());
+
+        assertSame(first, store.get(lowerCase));
+        assertSame(second, store.get(upperCase));
+        assertNotNull(store.get("product-1"));
+        assertEquals(3, store.size());
+        store.remove(lowerCase);
+        assertNull(store.get(lowerCase));
+        assertSame(second, store.get(upperCase));
+    }
+}
@@ -0,0 +1,144 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MutationPipelineTest {
+
+    ProductRepository productRepository;
+    MutationPipeline<Product> pipeline;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = new ProductRepository();
+        pipeline = new MutationPipeline<>(productRepository, 1024, 256, Thread::new);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.close();
+    }
+
+    private static Product product(String id, long version, int quantity) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setProductName("Sampo Cap Bambang");
+        product.setProductQuantity(quantity);
+        product.setVersion(version);
+        return product;
+    }
+
+    @Test
+    void testCoalescesUpdatesOfOneIdIntoOneWrite() {
+        String id = productRepository.create(product(null, 0, 1)).getProductId();
+        long modifications = productRepository.modificationCount();
+        long lastSequence = productRepository.getChangeLog().lastSequence();
+
+        // Queued before the writer starts, so they land in one batch
+        CompletableFuture<Product> first = pipeline.update(id, product(null, 1, 2));
+        CompletableFuture<Product> second = pipeline.update(id, product(null, 2, 3));
+        CompletableFuture<Product> stale = pipeline.update(id, product(null, 1, 9));
+        CompletableFuture<Product> missing = pipeline.update("non-existent-id", product(null, 0, 1));
+        pipeline.start();
+
+        assertEquals(2, MutationPipeline.await(first).getVersion());
+        assertEquals(2, MutationPipeline.await(first).getProductQuantity());
+        assertEquals(3, MutationPipeline.await(second).getVersion());
+        assertThrows(VersionConflictException.class, () -> MutationPipeline.await(stale));
+        assertNull(MutationPipeline.await(missing));
+
+        Product stored = productRepository.findById(id).orElseThrow();
+        assertEquals(3, stored.getProductQuantity());
+        assertEquals(3, stored.getVersion());
+        assertEquals(lastSequence + 1, productRepository.getChangeLog().lastSequence());
+        assertEquals(modifications + 1, productRepository.modificationCount());
+    }
+
+    @Test
+    void testKeepsOrderAroundCreatesAndDeletes() {
+        String id = productRepository.create(product(null, 0, 1)).getProductId();
+
+        CompletableFuture<Product> before = pipeline.update(id, product(null, 0, 5));
+        CompletableFuture<Product> delete = pipeline.delete(id);
+        CompletableFuture<Product> after = pipeline.update(id, product(null, 0, 7));
+        CompletableFuture<Product> recreated = pipeline.create(product(id, 0, 8));
+        pipeline.start();
+
+        assertEquals(5, MutationPipeline.await(before).getProductQuantity());
+        assertNull(MutationPipeline.await(delete));
+        assertNull(MutationPipeline.await(after));
+        assertEquals(8, MutationPipeline.await(recreated).getProductQuantity());
+        assertEquals(1, MutationPipeline.await(recreated).getVersion());
+        assertEquals(8, productRepository.findById(id).orElseThrow().getProductQuantity());
+    }
+
+    @Test
+    void testKeepsOrderAroundSalesAndImports() {
+        String id = productRepository.create(product(null, 0, 10)).getProductId();
+        assertTrue(productRepository.reserve(id, 4));
+
+        CompletableFuture<Product> restocked = pipeline.update(id, product(null, 0, 12));
+        CompletableFuture<Product> sold = pipeline.commit(id, 4);
+        CompletableFuture<Product> edited = pipeline.update(id, product(null, 0, 20));
+        CompletableFuture<Product> imported = pipeline.createAll(List.of(product(id, 0, 30), product(null, 0, 1)));
+        pipeline.start();
+
+        assertEquals(12, MutationPipeline.await(restocked).getProductQuantity());
+        assertEquals(8, MutationPipeline.await(sold).getProductQuantity());
+        assertEquals(3, MutationPipeline.await(sold).getVersion());
+        assertEquals(20, MutationPipeline.await(edited).getProductQuantity());
+        assertNull(MutationPipeline.await(imported));
+
+        Product stored = productRepository.findById(id).orElseThrow();
+        assertEquals(30, stored.getProductQuantity());
+        assertEquals(5, stored.getVersion());
+        assertEquals(30, productRepository.availableStock(id));
+        assertEquals(2, productRepository.statistics().getCount());
+    }
+
+    @Test
+    void testConcurrentCallers() throws Exception {
+        pipeline.start();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> callers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                callers.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        Product created = MutationPipeline.await(pipeline.create(product(null, 0, i)));
+                        assertNotNull(created.getProductId());
+                    }
+                }));
+            }
+            for (Future<?> caller : callers) {
+                caller.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(4_000, productRepository.getStore().size());
+        assertEquals(4_000, productRepository.statistics().getCount());
+    }
+
+    @Test
+    void testCloseAppliesQueuedMutationsThenRefusesNewOnes() {
+        CompletableFuture<Product> queued = pipeline.create(product(null, 0, 1));
+        pipeline.start();
+        pipeline.close();
+
+        assertTrue(queued.isDone());
+        assertEquals(1, productRepository.getStore().size());
+        assertThrows(IllegalStateException.class, () -> pipeline.create(product(null, 0, 2)));
+    }
+}
@@ -1,15 +1,25 @@
 package id.ac.ui.cs.advprog.eshop.repository;
 
+import id.ac.ui.cs.advprog.eshop.model.InventoryStatistics;
+import id.ac.ui.cs.advprog.eshop.model.Page;
 import id.ac.ui.cs.advprog.eshop.model.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -131,6 +141,26 @@ class ProductRepositoryTest {
         assertFalse(productIterator.hasNext());
     }
 
+    @Test
+    void testRemovalCount_GoesUpOnDeleteOnly() {
+        Product product = new Product();
+        product.setProductId("eb558e9f-1c39-460e-8860-71af6af63bd6");
+        product.setProductName("Sampo Cap Bambang");
+        productRepository.create(product);
+        productRepository.update(product);
+        productRepository.deleteById("non-existent-id");
+        assertEquals(0, productRepository.removalCount());
+
+        productRepository.deleteById("eb558e9f-1c39-460e-8860-71af6af63bd6");
+        Product recreated = new Product();
+        recreated.setProductId("eb558e9f-1c39-460e-8860-71af6af63bd6");
+        productRepository.create(recreated);
+
+        // Same id and version as the first product, but a different removal count
+        assertEquals(1, productRepository.removalCount());
+        assertEquals(1, recreated.getVersion());
+    }
+
     @Test
     void testCreate_GenerateProductId() {
         // Arrange: Create a product without setting a productId
@@ -204,4 +234,379 @@ class ProductRepositoryTest {
         assertEquals("Sampo Cap Usep", foundProduct.get().getProductName());
         assertEquals(50, foundProduct.get().getProductQuantity());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testCreate_SameIdReplacesExistingProduct() {
+        Product product = new Product();
+        product.setProductId("eb558e9f-1c39-460e-8860-71af6af63bd6");
+        product.setProductName("Sampo Cap Bambang");
+        product.setProductQuantity(100);
+        productRepository.create(product);
+
+        Product replacement = new Product();
+        replacement.setProductId("eb558e9f-1c39-460e-8860-71af6af63bd6");
+        replacement.setProductName("Sampo Cap Usep");
+        replacement.setProductQuantity(50);
+        productRepository.create(replacement);
+
+        Iterator<Product> productIterator = productRepository.findAll();
+        assertEquals("Sampo Cap Usep", productIterator.next().getProductName());
+        assertFalse(productIterator.hasNext());
+    }
+
+    @Test
+    void testCreate_SameIdKeepsCountingVersions() {
+        Product product = new Product();
+        product.setProductId("eb558e9f-1c39-460e-8860-71af6af63bd6");
+        product.setProductName("Sampo Cap Bambang");
+        assertEquals(1, productRepository.create(product).getVersion());
+
+        Product replacement = new Product();
+        replacement.setProductId("eb558e9f-1c39-460e-8860-71af6af63bd6");
+        replacement.setProductName("Sampo Cap Usep");
+        assertEquals(2, productRepository.create(replacement).getVersion());
+
+        Product imported = new Product();
+        imported.setProductId("eb558e9f-1c39-460e-8860-71af6af63bd6");
+        imported.setProductName("Sampo Cap Ujang");
+        Product other = new Product();
+        other.setProductName("Sabun Cap Bambang");
+        productRepository.createAll(List.of(imported, other));
+        assertEquals(3, productRepository.findById(imported.getProductId()).orElseThrow().getVersion());
+        assertEquals(1, productRepository.findById(other.getProductId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void testFindAll_WhileCreatingConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    Product product = new Product();
+                    product.setProductName("Product " + i);
+                    productRepository.create(product);
+                }
+            });
+            Future<?> deleter = executor.submit(() -> {
+                while (!writer.isDone()) {
+                    Iterator<Product> productIterator = productRepository.findAll();
+                    if (productIterator.hasNext()) {
+                        productRepository.deleteById(productIterator.next().getProductId());
+                    }
+                }
+            });
+
+            // Iterating while other threads write must not throw ConcurrentModificationException
+            while (!writer.isDone()) {
+                productRepository.findAll().forEachRemaining(product -> assertNotNull(product.getProductId()));
+            }
+            writer.get(10, TimeUnit.SECONDS);
+            deleter.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Iterator<Product> productIterator = productRepository.findAll();
+        while (productIterator.hasNext()) {
+            Product product = productIterator.next();
+            assertTrue(productRepository.findById(product.getProductId()).isPresent());
+        }
+    }
+
+    @Test
+    void testFindPage_ByOffset() {
+        for (int i = 0; i < 5; i++) {
+            Product product = new Product();
+            product.setProductName("Product " + i);
+            productRepository.create(product);
+        }
+
+        Page<Product> firstPage = productRepository.findPage(0, 2);
+        assertEquals(2, firstPage.getContent().size());
+        assertEquals("Product 0", firstPage.getContent().get(0).getProductName());
+        assertTrue(firstPage.hasNext());
+
+        Page<Product> lastPage = productRepository.findPage(4, 2);
+        assertEquals(1, lastPage.getContent().size());
+        assertEquals("Product 4", lastPage.getContent().get(0).getProductName());
+        assertFalse(lastPage.hasNext());
+
+        assertTrue(productRepository.findPage(10, 2).getContent().isEmpty());
+    }
+
+    @Test
+    void testFindPageAfter_CursorSurvivesDeletes() {
+        for (int i = 0; i < 5; i++) {
+            Product product = new Product();
+            product.setProductId("product-" + i);
+            product.setProductName("Product " + i);
+            productRepository.create(product);
+        }
+
+        Page<Product> firstPage = productRepository.findPageAfter(null, 2);
+        assertEquals("product-1", firstPage.getContent().get(1).getProductId());
+
+        // Removing the item the cursor points at must not shift the next page
+        productRepository.deleteById("product-1");
+        Page<Product> secondPage = productRepository.findPageAfter(firstPage.getNextCursor(), 2);
+        assertEquals("product-2", secondPage.getContent().get(0).getProductId());
+        assertEquals("product-3", secondPage.getContent().get(1).getProductId());
+
+        Page<Product> lastPage = productRepository.findPageAfter(secondPage.getNextCursor(), 2);
+        assertEquals(1, lastPage.getContent().size());
+        assertEquals("product-4", lastPage.getContent().get(0).getProductId());
+        assertNull(lastPage.getNextCursor());
+    }
+
+    @Test
+    void testFindPageAfter_MalformedCursorStartsFromBeginning() {
+        Product product = new Product();
+        product.setProductName("Sampo Cap Bambang");
+        productRepository.create(product);
+
+        Page<Product> page = productRepository.findPageAfter("not-a-cursor", 10);
+        assertEquals(1, page.getContent().size());
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    void testBindMetrics_RecordsOperationsAndSize() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        productRepository.getStore().bindMetrics(registry, "products");
+
+        Product product = new Product();
+        product.setProductName("Sampo Cap Bambang");
+        productRepository.create(product);
+        productRepository.findById(product.getProductId());
+        productRepository.findById("non-existent-id");
+
+        assertEquals(1, registry.get("eshop.store.operation").tags("store", "products", "operation", "write").timer().count());
+        assertEquals(2, registry.get("eshop.store.operation").tags("store", "products", "operation", "read").timer().count());
+        assertEquals(1, registry.get("eshop.store.lock.wait").tags("store", "products").timer().count());
+        assertEquals(1.0, registry.get("eshop.store.size").tags("store", "products").gauge().value());
+    }
+
+    @Test
+    void testSearch_MatchesWordPrefixes() {
+        for (String name : List.of("Sampo Cap Bambang", "Sampo Cap Usep", "Sabun Mandi")) {
+            Product product = new Product();
+            product.setProductName(name);
+            productRepository.create(product);
+        }
+
+        assertEquals(2, productRepository.search("samp", 10).size());
+        assertEquals(List.of("Sampo Cap Usep"),
+                productRepository.search("cap US", 10).stream().map(Product::getProductName).toList());
+        assertEquals(1, productRepository.search("sa", 1).size());
+        assertTrue(productRepository.search("bambang sabun", 10).isEmpty());
+        assertTrue(productRepository.search("  ", 10).isEmpty());
+    }
+
+    @Test
+    void testSearch_FollowsUpdatesAndDeletes() {
+        Product product = new Product();
+        product.setProductName("Sampo Cap Bambang");
+        productRepository.create(product);
+
+        Product renamed = new Product();
+        renamed.setProductId(product.getProductId());
+        renamed.setProductName("Sabun Mandi");
+        renamed.setProductQuantity(5);
+        productRepository.update(renamed);
+
+        assertTrue(productRepository.search("sampo", 10).isEmpty());
+        assertEquals(5, productRepository.search("mandi", 10).get(0).getProductQuantity());
+
+        productRepository.deleteById(product.getProductId());
+        assertTrue(productRepository.search("mandi", 10).isEmpty());
+    }
+
+    @Test
+    void testUpdate_NotFound() {
+        Product product = new Product();
+        product.setProductId("non-existent-id");
+        assertNull(productRepository.update(product));
+        assertFalse(productRepository.findAll().hasNext());
+    }
+
+    @Test
+    void testFindByQuantityBetween() {
+        for (int quantity : new int[] {50, 5, 100, 5}) {
+            Product product = new Product();
+            product.setProductName("Product " + quantity);
+            product.setProductQuantity(quantity);
+            productRepository.create(product);
+        }
+
+        assertEquals(List.of(5, 5, 50),
+                productRepository.findByQuantityBetween(0, 50).stream().map(Product::getProductQuantity).toList());
+        assertEquals(1, productRepository.findByQuantityBetween(100, 100).size());
+        assertTrue(productRepository.findByQuantityBetween(6, 49).isEmpty());
+    }
+
+    @Test
+    void testStatistics_FollowWrites() {
+        List<Product> products = new ArrayList<>();
+        for (int quantity : new int[] {50, 5, 100}) {
+            Product product = new Product();
+            product.setProductName("Product " + quantity);
+            product.setProductQuantity(quantity);
+            products.add(productRepository.create(product));
+        }
+        Product edited = new Product();
+        edited.setProductId(products.get(0).getProductId());
+        edited.setProductQuantity(40);
+        productRepository.update(edited);
+        productRepository.deleteById(products.get(2).getProductId());
+
+        InventoryStatistics statistics = productRepository.statistics();
+        assertEquals(2, statistics.getCount());
+        assertEquals(45, statistics.getTotalQuantity());
+        assertEquals(5, statistics.getMinQuantity().intValue());
+        assertEquals(40, statistics.getMaxQuantity().intValue());
+        assertTrue(statistics.getCountsByColor().isEmpty());
+    }
+
+    @Test
+    void testUpdate_ComparesAndSetsVersion() {
+        Product product = new Product();
+        product.setProductName("Sampo Cap Bambang");
+        productRepository.create(product);
+        assertEquals(1, product.getVersion());
+
+        Product firstEdit = new Product();
+        firstEdit.setProductId(product.getProductId());
+        firstEdit.setProductName("Sampo Cap Usep");
+        firstEdit.setVersion(1);
+        assertEquals(2, productRepository.update(firstEdit).getVersion());
+
+        // A second editor who also loaded version 1 must not overwrite the first edit
+        Product staleEdit = new Product();
+        staleEdit.setProductId(product.getProductId());
+        staleEdit.setProductName("Sabun Mandi");
+        staleEdit.setVersion(1);
+        VersionConflictException conflict = assertThrows(VersionConflictException.class,
+                () -> productRepository.update(staleEdit));
+        assertEquals(2, conflict.getCurrentVersion());
+        assertEquals("Sampo Cap Usep", productRepository.findById(product.getProductId()).get().getProductName());
+        assertTrue(productRepository.search("sabun", 10).isEmpty());
+    }
+
+    @Test
+    void testReserveCommitRelease() {
+        Product product = new Product();
+        product.setProductName("Sampo Cap Bambang");
+        product.setProductQuantity(10);
+        productRepository.create(product);
+        String productId = product.getProductId();
+
+        assertTrue(productRepository.reserve(productId, 7));
+        assertFalse(productRepository.reserve(productId, 4));
+        assertEquals(3, productRepository.availableStock(productId));
+
+        Product sold = productRepository.commit(productId, 5);
+        assertEquals(5, sold.getProductQuantity());
+        assertEquals(2, sold.getVersion());
+        assertEquals(3, productRepository.availableStock(productId));
+
+        productRepository.release(productId, 2);
+        assertEquals(5, productRepository.availableStock(productId));
+        assertThrows(IllegalStateException.class, () -> productRepository.commit(productId, 1));
+        assertThrows(IllegalStateException.class, () -> productRepository.release(productId, 1));
+        assertThrows(IllegalArgumentException.class, () -> productRepository.reserve(productId, 0));
+        assertFalse(productRepository.reserve("non-existent-id", 1));
+        assertEquals(5, productRepository.findById(productId).get().getProductQuantity());
+    }
+
+    @Test
+    void testCommit_RejectedWriteKeepsReservation() {
+        Product product = new Product();
+        product.setProductName("Sampo Cap Bambang");
+        product.setProductQuantity(10);
+        productRepository.create(product);
+        String productId = product.getProductId();
+        assertTrue(productRepository.reserve(productId, 4));
+
+        AtomicBoolean reject = new AtomicBoolean(true);
+        productRepository.getStore().addListener(new StoreListener<>() {
+            @Override
+            public void onPut(String id, Product previous, Product current) {
+                if (reject.get()) {
+                    throw new IllegalStateException("Write rejected");
+                }
+            }
+        });
+        assertThrows(IllegalStateException.class, () -> productRepository.commit(productId, 4));
+
+        assertEquals(10, productRepository.findById(productId).get().getProductQuantity());
+        assertEquals(6, productRepository.availableStock(productId));
+        assertEquals(1, productRepository.findByQuantityBetween(10, 10).size());
+        assertTrue(productRepository.findByQuantityBetween(6, 6).isEmpty());
+
+        reject.set(false);
+        assertEquals(6, productRepository.commit(productId, 4).getProductQuantity());
+        assertEquals(6, productRepository.availableStock(productId));
+        assertThrows(IllegalStateException.class, () -> productRepository.release(productId, 1));
+    }
+
+    @Test
+    void testReserve_EditKeepsReservations() {
+        Product product = new Product();
+        product.setProductName("Sampo Cap Bambang");
+        product.setProductQuantity(10);
+        productRepository.create(product);
+        assertTrue(productRepository.reserve(product.getProductId(), 4));
+
+        // Restocking through an edit changes the units on hand but not the reservations
+        Product restocked = new Product();
+        restocked.setProductId(product.getProductId());
+        restocked.setProductName("Sampo Cap Bambang");
+        restocked.setProductQuantity(20);
+        productRepository.update(restocked);
+
+        assertEquals(16, productRepository.availableStock(product.getProductId()));
+        assertEquals(16, productRepository.commit(product.getProductId(), 4).getProductQuantity());
+    }
+
+    @Test
+    void testReserve_ConcurrentCheckoutsNeverOversell() throws Exception {
+        int stock = 1_000;
+        Product product = new Product();
+        product.setProductName("Flash Sale Item");
+        product.setProductQuantity(stock);
+        productRepository.create(product);
+        String productId = product.getProductId();
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    int sold = 0;
+                    for (int i = 0; i < stock; i++) {
+                        if (productRepository.reserve(productId, 1)) {
+                            if (i % 3 == 0) {
+                                productRepository.release(productId, 1);
+                            } else {
+                                productRepository.commit(productId, 1);
+                                sold++;
+                            }
+                        }
+                    }
+                    return sold;
+                }));
+            }
+            int sold = 0;
+            for (Future<Integer> future : futures) {
+                sold += future.get(30, TimeUnit.SECONDS);
+            }
+            int remaining = productRepository.findById(productId).get().getProductQuantity();
+            assertTrue(remaining >= 0);
+            assertEquals(stock, sold + remaining);
+            assertEquals(remaining, productRepository.availableStock(productId));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
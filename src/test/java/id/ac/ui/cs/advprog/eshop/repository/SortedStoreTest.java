@@ -0,0 +1,130 @@
+package id.ac.ui.cs.advprog.eshop.repository;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortedStoreTest {
+
+    SortedStore<Product> store;
+
+    @BeforeEach
+    void setUp() {
+        store = new SortedStore<>();
+    }
+
+    private static Product product(String id, int quantity) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setProductName("Product " + id);
+        product.setProductQuantity(quantity);
+        return product;
+    }
+
+    @Test
+    void testListsInIdOrderAndPagesByLastId() {
+        for (String id : new String[] {"c", "a", "e", "b", "d"}) {
+            store.put(id, product(id, 1));
+        }
+        store.remove("b");
+
+        Page<Product> first = store.pageAfter(null, 2);
+        assertEquals(List.of("a", "c"), first.getContent().stream().map(Product::getProductId).toList());
+        assertEquals("c", first.getNextCursor());
+        store.remove("c");
+        Page<Product> second = store.pageAfter(first.getNextCursor(), 2);
+        assertEquals(List.of("d", "e"), second.getContent().stream().map(Product::getProductId).toList());
+        assertNull(second.getNextCursor());
+
+        assertEquals(List.of("d"), store.page(1, 1).getContent().stream().map(Product::getProductId).toList());
+        assertEquals(3, store.size());
+    }
+
+    @Test
+    void testRejectedWriteIsRolledBack() {
+        store.put("a", product("a", 5));
+        store.addListener(new StoreListener<>() {
+            @Override
+            public void onPut(String id, Product previous, Product current) {
+                if (current.getProductQuantity() < 0) {
+                    throw new IllegalArgumentException("Negative quantity");
+                }
+            }
+
+            @Override
+            public void onRemove(String id, Product previous) {
+                throw new IllegalStateException("Removal rejected");
+            }
+        });
+
+        assertThrows(IllegalArgumentException.class, () -> store.put("b", product("b", -1)));
+        assertThrows(IllegalArgumentException.class, () -> store.put("a", product("a", -1)));
+        assertThrows(IllegalStateException.class, () -> store.remove("a"));
+
+        assertNull(store.get("b"));
+        assertEquals(5, store.get("a").getProductQuantity());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testConcurrentUpdatesOfOneIdAreSerialised() throws Exception {
+        ProductRepository productRepository = new ProductRepository(store);
+        Product product = productRepository.create(product(null, 0));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 1_000; i++) {
+                        store.update(product.getProductId(), existing -> {
+                            Product next = product(existing.getProductId(), existing.getProductQuantity() + 1);
+                            next.setVersion(existing.getVersion() + 1);
+                            return next;
+                        });
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(4_000, productRepository.findById(product.getProductId()).orElseThrow().getProductQuantity());
+        assertEquals(List.of(product.getProductId()), productRepository.findByQuantityBetween(4_000, 4_000)
+                .stream().map(Product::getProductId).toList());
+    }
+
+    @Test
+    void testCarRepositoryOnSortedStore() {
+        CarRepository carRepository = new CarRepository(StorageEngine.of("sorted").create(null));
+        Car car = new Car();
+        car.setCarName("Toyota Supra");
+        car.setCarColor("Red");
+        car.setCarQuantity(5);
+        carRepository.createCar(car);
+
+        assertEquals("Red", carRepository.findById(car.getCarId()).orElseThrow().getCarColor());
+        assertEquals(1, carRepository.findByColor("red").size());
+        assertTrue(carRepository.reserve(car.getCarId(), 5));
+        assertEquals(0, carRepository.commit(car.getCarId(), 5).getCarQuantity());
+
+        Car replacement = new Car();
+        replacement.setCarId(car.getCarId());
+        replacement.setCarName("Toyota Supra");
+        replacement.setCarColor("Blue");
+        assertEquals(3, carRepository.createCar(replacement).getVersion());
+        assertEquals(1, carRepository.statistics().getCount());
+    }
+}
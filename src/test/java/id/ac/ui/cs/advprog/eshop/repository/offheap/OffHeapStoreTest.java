@@ -0,0 +1,308 @@
+package id.ac.ui.cs.advprog.eshop.repository.offheap;
+
+import id.ac.ui.cs.advprog.eshop.model.Car;
+import id.ac.ui.cs.advprog.eshop.model.Page;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.CarRepository;
+import id.ac.ui.cs.advprog.eshop.repository.StoreListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapStoreTest {
+
+    OffHeapStore<Product> store;
+
+    @BeforeEach
+    void setUp() {
+        store = new OffHeapStore<>(RowLayout.product());
+    }
+
+    private static Product product(String id, String name, int quantity) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setProductName(name);
+        product.setProductQuantity(quantity);
+        product.setVersion(1);
+        return product;
+    }
+
+    private Product put(String name, int quantity) {
+        Product product = product(UUID.randomUUID().toString(), name, quantity);
+        return store.put(product.getProductId(), product);
+    }
+
+    @Test
+    void testPutAndGet_DecodesCopy() {
+        Product product = put("Sampo Cap Bambang", 100);
+
+        Product found = store.get(product.getProductId());
+        assertNotSame(product, found);
+        assertEquals(product.getProductId(), found.getProductId());
+        assertEquals("Sampo Cap Bambang", found.getProductName());
+        assertEquals(100, found.getProductQuantity());
+        assertEquals(1, found.getVersion());
+
+        found.setProductName("Changed");
+        assertEquals("Sampo Cap Bambang", store.get(product.getProductId()).getProductName());
+    }
+
+    @Test
+    void testGet_NotFound() {
+        assertNull(store.get(UUID.randomUUID().toString()));
+        assertNull(store.get("non-existent-id"));
+        assertNull(store.get(null));
+    }
+
+    @Test
+    void testNonUuidIds() {
+        // Upper-case UUIDs would print back in lower case, so they are kept as plain strings
+        String upperCase = UUID.randomUUID().toString().toUpperCase();
+        store.put("product-1", product("product-1", "Plain", 1));
+        store.put(upperCase, product(upperCase, "Upper", 2));
+
+        assertEquals("product-1", store.get("product-1").getProductId());
+        assertEquals(upperCase, store.get(upperCase).getProductId());
+        assertNull(store.get(upperCase.toLowerCase()));
+
+        store.remove("product-1");
+        assertNull(store.get("product-1"));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testNullAndMultiByteText() {
+        Product unnamed = put(null, 1);
+        Product unicode = put("Kopi Luwak \u2615 \u00dcn\u00efc\u00f6d\u00e9", 2);
+
+        assertNull(store.get(unnamed.getProductId()).getProductName());
+        assertEquals("Kopi Luwak \u2615 \u00dcn\u00efc\u00f6d\u00e9", store.get(unicode.getProductId()).getProductName());
+    }
+
+    @Test
+    void testPutReplacesInPlace() {
+        Product first = put("First", 1);
+        Product second = put("Second", 2);
+
+        store.put(first.getProductId(), product(first.getProductId(), "First, renamed with a longer name", 10));
+        store.put(second.getProductId(), product(second.getProductId(), "2nd", 20));
+
+        Iterator<Product> products = store.iterator();
+        assertEquals("First, renamed with a longer name", products.next().getProductName());
+        assertEquals("2nd", products.next().getProductName());
+        assertFalse(products.hasNext());
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void testUpdateAndRemove() {
+        Product product = put("Sampo", 10);
+
+        Product updated = store.update(product.getProductId(), existing -> {
+            existing.setProductQuantity(existing.getProductQuantity() - 1);
+            return existing;
+        });
+        assertEquals(9, updated.getProductQuantity());
+        assertEquals(9, store.get(product.getProductId()).getProductQuantity());
+        assertNull(store.update(UUID.randomUUID().toString(), existing -> existing));
+
+        store.remove(product.getProductId());
+        assertNull(store.get(product.getProductId()));
+        assertFalse(store.iterator().hasNext());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testManyRows_GrowsAndKeepsOrder() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            products.add(product(UUID.randomUUID().toString(), "Product " + i, i));
+        }
+        store.putAll(products, Product::getProductId);
+        for (int i = 0; i < products.size(); i += 2) {
+            store.remove(products.get(i).getProductId());
+        }
+
+        assertEquals(2_500, store.size());
+        for (int i = 1; i < products.size(); i += 2) {
+            assertEquals(i, store.get(products.get(i).getProductId()).getProductQuantity());
+        }
+        Iterator<Product> remaining = store.iterator();
+        for (int i = 1; i < products.size(); i += 2) {
+            assertEquals("Product " + i, remaining.next().getProductName());
+        }
+        assertFalse(remaining.hasNext());
+    }
+
+    @Test
+    void testChurn_ReusesRowsAndKeepsOffHeapBytesBounded() {
+        String padding = "x".repeat(500);
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            products.add(put("Product " + i + padding, i));
+        }
+        // 100 rounds write about 50 MiB of text while about 0.5 MiB is live at any time
+        for (int round = 0; round < 100; round++) {
+            for (int i = 0; i < products.size(); i++) {
+                store.remove(products.get(i).getProductId());
+                products.set(i, put("Product " + i + "." + round + padding, i));
+            }
+            assertTrue(store.offHeapBytes() <= 4L * StringColumn.SEGMENT_BYTES,
+                    "Off-heap text grew to " + store.offHeapBytes() + " bytes");
+        }
+
+        assertEquals(1_000, store.size());
+        for (int i = 0; i < products.size(); i++) {
+            assertEquals("Product " + i + ".99" + padding, store.get(products.get(i).getProductId()).getProductName());
+        }
+        Page<Product> all = store.pageAfter(null, 2_000);
+        assertEquals(1_000, all.getContent().size());
+        assertNull(all.getNextCursor());
+    }
+
+    @Test
+    void testPaging() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            products.add(put("Product " + i, i));
+        }
+        store.remove(products.get(1).getProductId());
+
+        Page<Product> page = store.page(1, 2);
+        assertEquals(List.of(2, 3), page.getContent().stream().map(Product::getProductQuantity).toList());
+
+        Page<Product> first = store.pageAfter(null, 2);
+        assertEquals(List.of(0, 2), first.getContent().stream().map(Product::getProductQuantity).toList());
+        store.remove(products.get(3).getProductId());
+        Page<Product> second = store.pageAfter(first.getNextCursor(), 2);
+        assertEquals(List.of(4), second.getContent().stream().map(Product::getProductQuantity).toList());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void testRejectedWriteIsRolledBack() {
+        Product product = put("Original", 5);
+        store.addListener(new StoreListener<>() {
+            @Override
+            public void onPut(String id, Product previous, Product current) {
+                if (current.getProductQuantity() < 0) {
+                    throw new IllegalArgumentException("Negative quantity");
+                }
+            }
+
+            @Override
+            public void onRemove(String id, Product previous) {
+                throw new IllegalStateException("Removal rejected");
+            }
+        });
+
+        String rejectedId = UUID.randomUUID().toString();
+        assertThrows(IllegalArgumentException.class,
+                () -> store.put(rejectedId, product(rejectedId, "Rejected", -1)));
+        assertThrows(IllegalArgumentException.class, () -> store.put(product.getProductId(),
+                product(product.getProductId(), "Renamed", -1)));
+        assertThrows(IllegalStateException.class, () -> store.remove(product.getProductId()));
+
+        assertNull(store.get(rejectedId));
+        Product found = store.get(product.getProductId());
+        assertEquals("Original", found.getProductName());
+        assertEquals(5, found.getProductQuantity());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testOversizedTextIsRolledBack() {
+        Product product = put("Original", 5);
+        String oversized = "x".repeat(StringColumn.SEGMENT_BYTES + 1);
+
+        String rejectedId = UUID.randomUUID().toString();
+        assertThrows(IllegalArgumentException.class,
+                () -> store.put(rejectedId, product(rejectedId, oversized, 1)));
+        assertThrows(IllegalArgumentException.class, () -> store.put(product.getProductId(),
+                product(product.getProductId(), oversized, 7)));
+
+        assertNull(store.get(rejectedId));
+        Product found = store.get(product.getProductId());
+        assertEquals("Original", found.getProductName());
+        assertEquals(5, found.getProductQuantity());
+        assertEquals(1, store.size());
+
+        store.put(rejectedId, product(rejectedId, "Retried", 1));
+        assertEquals("Retried", store.get(rejectedId).getProductName());
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void testConcurrentReadsDuringWrites() throws Exception {
+        Product hot = put("Hot", 0);
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 1; i <= 20_000; i++) {
+                    int quantity = i;
+                    store.update(hot.getProductId(), existing -> {
+                        existing.setProductName(quantity % 2 == 0 ? "Hot" : "Hot, but with a longer name");
+                        existing.setProductQuantity(quantity);
+                        return existing;
+                    });
+                    put("Filler " + i, i);
+                }
+                done.set(true);
+            });
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < 3; r++) {
+                readers.add(executor.submit(() -> {
+                    int last = 0;
+                    while (!done.get()) {
+                        Product seen = store.get(hot.getProductId());
+                        assertEquals(seen.getProductQuantity() % 2 == 0 ? "Hot" : "Hot, but with a longer name",
+                                seen.getProductName());
+                        assertTrue(seen.getProductQuantity() >= last);
+                        last = seen.getProductQuantity();
+                    }
+                }));
+            }
+            writer.get();
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(20_001, store.size());
+    }
+
+    @Test
+    void testCarRepositoryOnOffHeapStore() {
+        CarRepository carRepository = new CarRepository(new OffHeapStore<>(RowLayout.car()));
+        Car car = new Car();
+        car.setCarName("Toyota Supra");
+        car.setCarColor("Red");
+        car.setCarQuantity(5);
+        carRepository.createCar(car);
+
+        Car found = carRepository.findById(car.getCarId()).orElseThrow();
+        assertEquals("Red", found.getCarColor());
+        assertEquals(1, carRepository.findByColor("red").size());
+        assertEquals(1, carRepository.search("supra", 10).size());
+        assertTrue(carRepository.reserve(car.getCarId(), 5));
+        assertEquals(0, carRepository.commit(car.getCarId(), 5).getCarQuantity());
+
+        Car replacement = new Car();
+        replacement.setCarId(car.getCarId());
+        replacement.setCarName("Toyota Supra");
+        replacement.setCarColor("Blue");
+        assertEquals(3, carRepository.createCar(replacement).getVersion());
+    }
+}
@@ -0,0 +1,218 @@
+package id.ac.ui.cs.advprog.eshop.repository.persistence;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.IndexedStore;
+import id.ac.ui.cs.advprog.eshop.repository.StoreListener;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DurableStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private DurableStore<Product> durableStore() {
+        return new DurableStore<>(directory, "products", new ProductCodec(), Product::getProductId, true);
+    }
+
+    private static Product product(String id, String name, int quantity) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setProductName(name);
+        product.setProductQuantity(quantity);
+        return product;
+    }
+
+    private static List<String> names(IndexedStore<Product> store) {
+        List<String> names = new ArrayList<>();
+        store.iterator().forEachRemaining(product -> names.add(product.getProductName()));
+        return names;
+    }
+
+    @Test
+    void testRecover_ReplaysLogAfterCrash() throws IOException {
+        IndexedStore<Product> store = new IndexedStore<>();
+        durableStore().recover(store);
+        store.put("p1", product("p1", "Sampo Cap Bambang", 100));
+        store.put("p2", product("p2", "Sampo Cap Usep", 50));
+        store.put("p3", product("p3", null, 1));
+        store.update("p1", existing -> product("p1", "Sampo Cap Bambang", 99));
+        store.remove("p2");
+        // Crash: the log is never closed
+
+        IndexedStore<Product> recovered = new IndexedStore<>();
+        durableStore().recover(recovered);
+
+        assertEquals(2, recovered.size());
+        assertEquals(99, recovered.get("p1").getProductQuantity());
+        assertNull(recovered.get("p2"));
+        assertNull(recovered.get("p3").getProductName());
+        assertEquals(List.of("Sampo Cap Bambang", "null"), names(recovered).stream().map(String::valueOf).toList());
+    }
+
+    @Test
+    void testRecover_DiscardsTornRecord() throws IOException {
+        IndexedStore<Product> store = new IndexedStore<>();
+        durableStore().recover(store);
+        store.put("p1", product("p1", "Sampo Cap Bambang", 100));
+
+        // A crash in the middle of an append leaves a partial record at the end of the log
+        Path log = directory.resolve("products-0.wal");
+        Files.write(log, new byte[] {0, 0, 0, 42, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        IndexedStore<Product> recovered = new IndexedStore<>();
+        DurableStore<Product> durableStore = durableStore();
+        durableStore.recover(recovered);
+        assertEquals(1, recovered.size());
+
+        // The torn bytes are truncated, so records appended after recovery are readable
+        recovered.put("p2", product("p2", "Sampo Cap Usep", 50));
+        durableStore.close();
+
+        IndexedStore<Product> recoveredAgain = new IndexedStore<>();
+        durableStore().recover(recoveredAgain);
+        assertEquals(List.of("Sampo Cap Bambang", "Sampo Cap Usep"), names(recoveredAgain));
+    }
+
+    @Test
+    void testCheckpoint_SnapshotPlusNewerLog() throws IOException {
+        IndexedStore<Product> store = new IndexedStore<>();
+        DurableStore<Product> durableStore = durableStore();
+        durableStore.recover(store);
+        for (int i = 0; i < 100; i++) {
+            store.put("p" + i, product("p" + i, "Product " + i, i));
+        }
+        durableStore.checkpoint(store);
+        store.remove("p0");
+        store.put("p100", product("p100", "Product 100", 100));
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of("products-1.wal", "products.snapshot"),
+                    files.map(file -> file.getFileName().toString()).sorted().toList());
+        }
+
+        IndexedStore<Product> recovered = new IndexedStore<>();
+        durableStore().recover(recovered);
+        assertEquals(100, recovered.size());
+        assertNull(recovered.get("p0"));
+        assertEquals("Product 100", recovered.get("p100").getProductName());
+        assertEquals(42, recovered.get("p42").getProductQuantity());
+    }
+
+    @Test
+    void testRecover_RejectsCorruptSnapshot() throws IOException {
+        IndexedStore<Product> store = new IndexedStore<>();
+        DurableStore<Product> durableStore = durableStore();
+        durableStore.recover(store);
+        store.put("p1", product("p1", "Sampo Cap Bambang", 100));
+        durableStore.checkpoint(store);
+        durableStore.close();
+
+        Path snapshot = directory.resolve("products.snapshot");
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length / 2] ^= 0x7F;
+        Files.write(snapshot, bytes);
+
+        assertThrows(IOException.class, () -> durableStore().recover(new IndexedStore<>()));
+    }
+
+    @Test
+    void testFailedLogWrite_FailsTheStore() throws IOException {
+        IndexedStore<Product> store = new IndexedStore<>();
+        DurableStore<Product> durableStore = durableStore();
+        durableStore.recover(store);
+        store.put("p1", product("p1", "Sampo Cap Bambang", 100));
+        // Any write to a closed channel fails, like a full disk would
+        durableStore.close();
+
+        assertThrows(UncheckedIOException.class, () -> store.put("p2", product("p2", "Sampo Cap Usep", 50)));
+        // The write that missed the log is never served, and nothing else is either
+        assertThrows(IllegalStateException.class, () -> store.get("p2"));
+        assertThrows(IllegalStateException.class, () -> store.get("p1"));
+        assertThrows(IllegalStateException.class, store::iterator);
+        assertThrows(IllegalStateException.class, () -> store.put("p3", product("p3", "Sampo Cap Asep", 1)));
+        assertThrows(IllegalStateException.class, () -> store.page(0, 10));
+
+        IndexedStore<Product> recovered = new IndexedStore<>();
+        durableStore().recover(recovered);
+        assertEquals(List.of("Sampo Cap Bambang"), names(recovered));
+    }
+
+    @Test
+    void testFailedWrite_FailsEveryWriterInTheBatch() throws IOException {
+        Path file = directory.resolve("products-0.wal");
+        WriteAheadLog log = new WriteAheadLog(file);
+        log.append(new byte[] {1});
+        log.commit(true);
+        // Any write to a closed channel fails, like a full disk would
+        log.close();
+
+        log.append(new byte[] {2});
+        log.append(new byte[] {3});
+        // The first writer's drain takes both records; the second writer must not see them as written
+        assertThrows(IOException.class, () -> log.commit(true));
+        assertThrows(IOException.class, () -> log.commit(false));
+
+        List<Byte> replayed = new ArrayList<>();
+        WriteAheadLog.replay(file, body -> replayed.add(body[0]));
+        assertEquals(List.of((byte) 1), replayed);
+    }
+
+    @Test
+    void testWritersParkedInTheCriticalSection_LeaveCarriersFree() throws Exception {
+        IndexedStore<Product> store = new IndexedStore<>();
+        DurableStore<Product> durableStore = durableStore();
+        durableStore.recover(store);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        store.addListener(new StoreListener<>() {
+            @Override
+            public void onPut(String id, Product previous, Product current) {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        // More writers than carrier threads, each parked inside its id's critical section. Had
+        // that section held a monitor, as the index's compute() did, every carrier would stay
+        // pinned under a parked writer and the probe would never get to run
+        int writers = Runtime.getRuntime().availableProcessors() * 2 + 2;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < writers; i++) {
+                String id = "p" + i;
+                executor.submit(() -> store.put(id, product(id, "Product", 1)));
+            }
+            assertTrue(entered.await(10, TimeUnit.SECONDS));
+            Future<?> probe = executor.submit(() -> { });
+            try {
+                assertDoesNotThrow(() -> probe.get(10, TimeUnit.SECONDS),
+                        "No carrier thread was free while writers waited inside the store");
+            } finally {
+                release.countDown();
+            }
+        }
+        durableStore.close();
+
+        assertEquals(writers, store.size());
+    }
+}
@@ -0,0 +1,127 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingProductServiceTest {
+
+    private static final String PRODUCT_ID = "eb558e9f-1c39-460e-8860-71af6af63bd6";
+
+    @Mock
+    private ProductService delegate;
+
+    private final AtomicLong nanos = new AtomicLong();
+    private CachingProductService productService;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        productService = new CachingProductService(delegate, Caffeine.newBuilder()
+                .maximumSize(100)
+                .expireAfterWrite(Duration.ofMinutes(5))
+                .ticker(nanos::get)
+                .executor(Runnable::run)
+                .recordStats()
+                .build());
+        product = new Product();
+        product.setProductId(PRODUCT_ID);
+        product.setProductName("Sampo Cap Bambang");
+        product.setProductQuantity(100);
+    }
+
+    @Test
+    void testFindById_ServesRepeatedLookupsFromCache() {
+        when(delegate.findById(PRODUCT_ID)).thenReturn(Optional.of(product));
+
+        assertSame(product, productService.findById(PRODUCT_ID).orElseThrow());
+        assertSame(product, productService.findById(PRODUCT_ID).orElseThrow());
+
+        verify(delegate, times(1)).findById(PRODUCT_ID);
+        assertEquals(1, productService.getCacheStats().hitCount());
+        assertEquals(1, productService.getCacheStats().missCount());
+    }
+
+    @Test
+    void testFindById_DoesNotCacheMissingProducts() {
+        when(delegate.findById("non-existent-id")).thenReturn(Optional.empty());
+
+        assertTrue(productService.findById("non-existent-id").isEmpty());
+        assertTrue(productService.findById("non-existent-id").isEmpty());
+        assertTrue(productService.findById(null).isEmpty());
+
+        verify(delegate, times(2)).findById("non-existent-id");
+    }
+
+    @Test
+    void testFindById_ExpiresAfterTtl() {
+        when(delegate.findById(PRODUCT_ID)).thenReturn(Optional.of(product));
+
+        productService.findById(PRODUCT_ID);
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(6));
+        productService.findById(PRODUCT_ID);
+
+        verify(delegate, times(2)).findById(PRODUCT_ID);
+    }
+
+    @Test
+    void testUpdate_InvalidatesCachedProduct() {
+        when(delegate.findById(PRODUCT_ID)).thenReturn(Optional.of(product));
+        productService.findById(PRODUCT_ID);
+
+        productService.update(product);
+        productService.findById(PRODUCT_ID);
+
+        verify(delegate, times(1)).update(product);
+        verify(delegate, times(2)).findById(PRODUCT_ID);
+    }
+
+    @Test
+    void testDeleteById_InvalidatesCachedProduct() {
+        when(delegate.findById(PRODUCT_ID)).thenReturn(Optional.of(product), Optional.empty());
+        productService.findById(PRODUCT_ID);
+
+        productService.deleteById(PRODUCT_ID);
+
+        assertTrue(productService.findById(PRODUCT_ID).isEmpty());
+        verify(delegate, times(1)).deleteById(PRODUCT_ID);
+    }
+
+    @Test
+    void testCreate_InvalidatesReplacedProduct() {
+        when(delegate.findById(PRODUCT_ID)).thenReturn(Optional.of(product));
+        when(delegate.create(product)).thenReturn(product);
+        productService.findById(PRODUCT_ID);
+
+        productService.create(product);
+        productService.findById(PRODUCT_ID);
+
+        verify(delegate, times(2)).findById(PRODUCT_ID);
+    }
+
+    @Test
+    void testMaximumSize_EvictsEntries() {
+        for (int i = 0; i < 150; i++) {
+            Product other = new Product();
+            other.setProductId("product-" + i);
+            when(delegate.findById("product-" + i)).thenReturn(Optional.of(other));
+            productService.findById("product-" + i);
+        }
+
+        assertTrue(productService.getCacheSize() <= 100);
+        assertTrue(productService.getCacheStats().evictionCount() >= 50);
+    }
+}
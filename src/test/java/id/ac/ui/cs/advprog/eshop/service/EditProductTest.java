@@ -2,6 +2,7 @@ package id.ac.ui.cs.advprog.eshop.service;
 
 import id.ac.ui.cs.advprog.eshop.model.Product;
 import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import id.ac.ui.cs.advprog.eshop.repository.VersionConflictException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -45,6 +46,7 @@ public class EditProductTest {
         updatedProductDetails.setProductId(productId);
         updatedProductDetails.setProductName("Sampo Cap Usep");
         updatedProductDetails.setProductQuantity(50);
+        when(productRepository.update(updatedProductDetails)).thenReturn(updatedProductDetails);
 
         Product updatedProduct = productService.update(updatedProductDetails);
 
@@ -94,6 +96,7 @@ public class EditProductTest {
         updatedProductDetails.setProductId(productId);
         updatedProductDetails.setProductName("Sampo Cap Usep");
         updatedProductDetails.setProductQuantity(50);
+        when(productRepository.update(updatedProductDetails)).thenReturn(updatedProductDetails);
 
         Product updatedProduct = productService.update(updatedProductDetails);
 
@@ -123,6 +126,7 @@ public class EditProductTest {
         updatedProductDetails.setProductId(productId);
         updatedProductDetails.setProductName("Sampo Cap Usep");
         updatedProductDetails.setProductQuantity(50);
+        when(productRepository.update(updatedProductDetails)).thenReturn(updatedProductDetails);
 
         Product updatedProduct = productService.update(updatedProductDetails);
         productService.deleteById(productId);
@@ -136,4 +140,22 @@ public class EditProductTest {
         verify(productRepository, times(2)).findById(productId); // Once for update, once for delete
         verify(productRepository, times(1)).deleteById(productId);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testUpdate_StaleVersionIsRejected() {
+        String productId = "eb558e9f-1c39-460e-8860-71af6af63bd6";
+        Product existingProduct = new Product();
+        existingProduct.setProductId(productId);
+        existingProduct.setVersion(3);
+        when(productRepository.findById(productId)).thenReturn(Optional.of(existingProduct));
+
+        Product staleEdit = new Product();
+        staleEdit.setProductId(productId);
+        staleEdit.setVersion(2);
+        when(productRepository.update(staleEdit)).thenThrow(new VersionConflictException(productId, 2, 3));
+
+        VersionConflictException exception = assertThrows(VersionConflictException.class,
+                () -> productService.update(staleEdit));
+        assertEquals(3, exception.getCurrentVersion());
+    }
+}
@@ -2,6 +2,7 @@ package id.ac.ui.cs.advprog.eshop.service;
 
 import id.ac.ui.cs.advprog.eshop.model.Product;
 import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -69,4 +70,34 @@ public class FindAllTest {
 
         verify(productRepository, times(1)).findAll();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testStreamAll_ReadsRepositoryLazily() {
+        Product product = new Product();
+        product.setProductId("eb558e9f-1c39-460e-8860-71af6af63bd6");
+        product.setProductName("Sampo Cap Bambang");
+        product.setProductQuantity(100);
+
+        Iterable<Product> result = productService.streamAll();
+        verify(productRepository, never()).findAll();
+
+        when(productRepository.findAll()).thenReturn(List.of(product).iterator());
+        Iterator<Product> productIterator = result.iterator();
+        assertEquals("Sampo Cap Bambang", productIterator.next().getProductName());
+        assertFalse(productIterator.hasNext());
+        verify(productRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testFindAll_RecordsServiceTimer() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        productService.setMeterRegistry(registry);
+        when(productRepository.findAll()).thenReturn((Iterator<Product>) new ArrayList<Product>().iterator());
+
+        productService.findAll();
+        productService.findAll();
+
+        assertEquals(2, registry.get("eshop.service").tags("service", "product", "method", "findAll").timer().count());
+        assertEquals(0, registry.get("eshop.service").tags("service", "product", "method", "create").timer().count());
+    }
+}
@@ -0,0 +1,96 @@
+package id.ac.ui.cs.advprog.eshop.service;
+
+import id.ac.ui.cs.advprog.eshop.model.Product;
+import id.ac.ui.cs.advprog.eshop.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReactiveProductServiceTest {
+
+    ProductRepository productRepository;
+    ReactiveProductService reactiveProductService;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = new ProductRepository();
+        reactiveProductService = new ReactiveProductService(new ProductServiceImpl(productRepository));
+        for (int i = 0; i < 100; i++) {
+            Product product = new Product();
+            product.setProductName("Product " + i);
+            product.setProductQuantity(i);
+            productRepository.create(product);
+        }
+    }
+
+    @Test
+    void testStreamAll_PullsOnlyWhatIsRequested() {
+        AtomicInteger pulled = new AtomicInteger();
+        ReactiveProductService counting = new ReactiveProductService(new ProductServiceImpl(productRepository) {
+            @Override
+            public Iterable<Product> streamAll() {
+                return () -> {
+                    Iterator<Product> products = productRepository.findAll();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return products.hasNext();
+                        }
+
+                        @Override
+                        public Product next() {
+                            pulled.incrementAndGet();
+                            return products.next();
+                        }
+                    };
+                };
+            }
+        });
+
+        StepVerifier.create(counting.streamAll(), 3)
+                .expectNextCount(3)
+                .then(() -> assertEquals(3, pulled.get()))
+                .thenRequest(2)
+                .expectNextCount(2)
+                .thenCancel()
+                .verify();
+        assertEquals(5, pulled.get());
+    }
+
+    @Test
+    void testStreamAll_EmitsCatalogInOrder() {
+        StepVerifier.create(reactiveProductService.streamAll().map(Product::getProductQuantity))
+                .expectNext(0, 1, 2)
+                .expectNextCount(97)
+                .verifyComplete();
+    }
+
+    @Test
+    void testFindById() {
+        Product product = productRepository.findAll().next();
+
+        StepVerifier.create(reactiveProductService.findById(product.getProductId()))
+                .expectNext(product)
+                .verifyComplete();
+        StepVerifier.create(reactiveProductService.findById("non-existent-id"))
+                .verifyComplete();
+    }
+
+    @Test
+    void testCreateAndDelete() {
+        Product product = new Product();
+        product.setProductName("Sabun");
+
+        Product created = reactiveProductService.create(product).block();
+        assertNotNull(created.getProductId());
+        assertTrue(productRepository.findById(created.getProductId()).isPresent());
+
+        reactiveProductService.deleteById(created.getProductId()).block();
+        assertTrue(productRepository.findById(created.getProductId()).isEmpty());
+    }
+}